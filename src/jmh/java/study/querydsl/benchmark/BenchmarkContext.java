@@ -0,0 +1,78 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크용 스프링 컨텍스트. 매번 새 in-memory H2 를 쓰고 SQL 로깅은 끈다.
+ */
+public final class BenchmarkContext {
+
+    private static final int FLUSH_SIZE = 1000;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        List<String> arguments = new ArrayList<>(Arrays.asList(
+                "--spring.profiles.active=bench",
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=warn",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--member.slow-query.enabled=false"));
+        arguments.addAll(Arrays.asList(args));
+        return SpringApplication.run(QuerydslApplication.class, arguments.toArray(new String[0]));
+    }
+
+    /**
+     * team0 ~ team{teams-1} 에 member0 ~ member{members-1} 을 라운드로빈으로 넣는다. 나이는 0 ~ 99.
+     */
+    public static void seed(ConfigurableApplicationContext context, int teams, int members) {
+        EntityManager em = entityManager(context);
+        TransactionTemplate tx = transactionTemplate(context);
+
+        List<Long> teamIds = tx.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < teams; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                ids.add(team.getId());
+            }
+            return ids;
+        });
+
+        for (int from = 0; from < members; from += FLUSH_SIZE) {
+            int start = from;
+            tx.executeWithoutResult(status -> {
+                for (int i = start; i < Math.min(start + FLUSH_SIZE, members); i++) {
+                    Member member = new Member("member" + i, i % 100);
+                    member.setTeam(em.getReference(Team.class, teamIds.get(i % teams)));
+                    em.persist(member);
+                }
+            });
+        }
+    }
+
+    public static EntityManager entityManager(ConfigurableApplicationContext context) {
+        return SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+    }
+
+    public static TransactionTemplate transactionTemplate(ConfigurableApplicationContext context) {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+}
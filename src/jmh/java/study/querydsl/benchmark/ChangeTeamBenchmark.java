@@ -0,0 +1,92 @@
+package study.querydsl.benchmark;
+
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 10만명인 팀으로 changeTeam. 컬렉션을 로딩하지 않는 현재 방식과 로딩하는 경우(이전 동작) 비교.
+ * 매 호출은 롤백되므로 데이터는 그대로다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChangeTeamBenchmark {
+
+    @Param({"100000"})
+    private int teamSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager em;
+    private TransactionTemplate transactionTemplate;
+    private Long bigTeamId;
+    private Long memberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, 1, teamSize);
+        em = BenchmarkContext.entityManager(context);
+        transactionTemplate = BenchmarkContext.transactionTemplate(context);
+
+        bigTeamId = transactionTemplate.execute(status -> em.createQuery("select t.id from Team t", Long.class)
+                .getSingleResult());
+        memberId = transactionTemplate.execute(status -> {
+            Team small = new Team("small");
+            em.persist(small);
+            Member member = new Member("mover", 10, small);
+            em.persist(member);
+            return member.getId();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long ownerSideOnly() {
+        return moveToBigTeam(false);
+    }
+
+    @Benchmark
+    public Long loadCollection() {
+        return moveToBigTeam(true);
+    }
+
+    private Long moveToBigTeam(boolean initializeMembers) {
+        return transactionTemplate.execute(status -> {
+            Member member = em.find(Member.class, memberId);
+            Team bigTeam = em.find(Team.class, bigTeamId);
+            if (initializeMembers) {
+                Hibernate.initialize(bigTeam.getMembers());
+            }
+            member.changeTeam(bigTeam);
+            em.flush();
+            status.setRollbackOnly();
+            return member.getTeam().getId();
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드가 소수의 회원 나이를 동시에 올린다.
+ * 읽고-수정(@Version 재시도), 행 잠금(select ... for update) 후 엔티티 수정,
+ * update 한 문장(set age = age + 1, 엔티티 이벤트 없음)의 처리량, 충돌 비율 비교.
+ * hotMembers 가 작을수록 경합이 심하다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(8)
+public class MemberConcurrentUpdateBenchmark {
+
+    @Param({"1", "16", "1024"})
+    private int hotMembers;
+
+    private ConfigurableApplicationContext context;
+    private MemberJpaRepository memberJpaRepository;
+    private JPAQueryFactory queryFactory;
+    private TransactionTemplate transactionTemplate;
+    private Long[] memberIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Conflicts {
+        public long updates;
+        public long conflicts;
+        public long failures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            updates = 0;
+            conflicts = 0;
+            failures = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 충돌 시 재시도를 충분히 하도록 늘려 둔다.
+        context = BenchmarkContext.start("--member.retry.max-attempts=50", "--member.retry.backoff-ms=1");
+        BenchmarkContext.seed(context, 1, hotMembers);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        transactionTemplate = BenchmarkContext.transactionTemplate(context);
+
+        EntityManager em = BenchmarkContext.entityManager(context);
+        // 벌크 연산처럼 QueryGuard 없는 팩토리
+        queryFactory = new JPAQueryFactory(em);
+        List<Long> ids = transactionTemplate.execute(status ->
+                em.createQuery("select m.id from Member m", Long.class).getResultList());
+        memberIds = ids.toArray(new Long[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int optimisticRetry(Conflicts counters) {
+        try {
+            int attempts = memberJpaRepository.updateWithRetry(pick(), this::increment);
+            counters.updates++;
+            counters.conflicts += attempts - 1;
+            return attempts;
+        } catch (RuntimeException e) {
+            counters.failures++;
+            return -1;
+        }
+    }
+
+    @Benchmark
+    public long lockedUpdate(Conflicts counters) {
+        long updated = memberJpaRepository.addAge(pick(), 1);
+        counters.updates++;
+        return updated;
+    }
+
+    @Benchmark
+    public long bulkExecute(Conflicts counters) {
+        Long id = pick();
+        long updated = transactionTemplate.execute(status -> queryFactory
+                .update(QMember.member)
+                .set(QMember.member.age, QMember.member.age.add(1))
+                .where(QMember.member.id.eq(id))
+                .execute());
+        counters.updates++;
+        return updated;
+    }
+
+    private void increment(Member member) {
+        member.setAge(member.getAge() + 1);
+    }
+
+    private Long pick() {
+        return memberIds[ThreadLocalRandom.current().nextInt(memberIds.length)];
+    }
+}
@@ -0,0 +1,92 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * MemberJpaRepository.save 처리량. id 생성 전략(insert 마다 시퀀스 호출 vs pooled-lo) x 동시 writer 수.
+ * 트랜잭션 하나에 {@link #BATCH} 건을 저장해 JDBC 배치 효과까지 본다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MemberInsertBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"none", "pooled-lo"})
+    private String optimizer;
+
+    private ConfigurableApplicationContext context;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate transactionTemplate;
+    // username 은 유니크라 writer 끼리 겹치지 않게 번호를 나눠 쓴다.
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "--spring.jpa.properties.querydsl.id.optimizer=" + optimizer,
+                "--spring.jpa.properties.querydsl.id.increment-size=" + ("none".equals(optimizer) ? 1 : 50),
+                "--spring.datasource.hikari.maximum-pool-size=32");
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        transactionTemplate = BenchmarkContext.transactionTemplate(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(BATCH)
+    public void writers1() {
+        saveBatch();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(BATCH)
+    public void writers8() {
+        saveBatch();
+    }
+
+    @Benchmark
+    @Threads(32)
+    @OperationsPerInvocation(BATCH)
+    public void writers32() {
+        saveBatch();
+    }
+
+    private void saveBatch() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < BATCH; i++) {
+                memberJpaRepository.save(new Member("member" + sequence.incrementAndGet(), i));
+            }
+        });
+    }
+}
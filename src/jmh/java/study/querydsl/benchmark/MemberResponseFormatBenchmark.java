@@ -0,0 +1,115 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import study.querydsl.config.ResponseFormatConfig;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * /v1/members 응답(List&lt;MemberTeamDto&gt;) 직렬화 CPU 와 바이트 수. DB, 스프링 컨텍스트 없이 ObjectMapper 만.
+ * bytes 보조 카운터 / 호출 수 = 응답 크기.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MemberResponseFormatBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    @Param({"100"})
+    private int teams;
+
+    @Param({"json", "smile", "smile-shared", "cbor"})
+    private String format;
+
+    @Param({"0", "1", "6"})
+    private int gzipLevel;
+
+    private ObjectMapper objectMapper;
+    private List<MemberTeamDto> response;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        public long bytes;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            calls = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        switch (format) {
+            case "json":
+                objectMapper = new ObjectMapper();
+                break;
+            case "smile":
+                objectMapper = new ObjectMapper(ResponseFormatConfig.smileFactory(false));
+                break;
+            case "smile-shared":
+                objectMapper = new ObjectMapper(ResponseFormatConfig.smileFactory(true));
+                break;
+            case "cbor":
+                objectMapper = new ObjectMapper(new CBORFactory());
+                break;
+            default:
+                throw new IllegalArgumentException(format);
+        }
+        response = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            long teamId = i % teams;
+            response.add(new MemberTeamDto((long) i, "member" + i, i % 100, teamId, "team-name-" + teamId));
+        }
+    }
+
+    @Benchmark
+    public int serialize(Bytes counters) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(rows * 64);
+        if (gzipLevel > 0) {
+            try (OutputStream gzip = new LeveledGZIPOutputStream(buffer, gzipLevel)) {
+                objectMapper.writeValue(gzip, response);
+            }
+        } else {
+            objectMapper.writeValue(buffer, response);
+        }
+        counters.bytes += buffer.size();
+        counters.calls++;
+        return buffer.size();
+    }
+
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+        private LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+}
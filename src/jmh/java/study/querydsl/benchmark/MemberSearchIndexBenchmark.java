@@ -0,0 +1,84 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberRepositoryCustom;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * H2 search 와 인메모리 인덱스(member.search.mode=memory) 비교.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MemberSearchIndexBenchmark {
+
+    @Param({"100000"})
+    private int members;
+
+    @Param({"username", "teamAndAge", "ageRange"})
+    private String filter;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberRepositoryCustom memorySearch;
+    private MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--member.search.mode=memory");
+        BenchmarkContext.seed(context, 10, members);
+        memberRepository = context.getBean(MemberRepository.class);
+        memorySearch = context.getBean(MemberRepositoryCustom.class);
+
+        condition = new MemberSearchCondition();
+        switch (filter) {
+            case "username":
+                condition.setUsername("member" + members / 2);
+                break;
+            case "teamAndAge":
+                condition.setTeamName("team3");
+                condition.setAgeGoe(20);
+                condition.setAgeLoe(40);
+                break;
+            default:
+                condition.setAgeGoe(30);
+                condition.setAgeLoe(32);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> h2() {
+        return memberRepository.search(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> memory() {
+        return memorySearch.search(condition);
+    }
+}
@@ -0,0 +1,75 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.index.MemberIndexLoader;
+import study.querydsl.index.MemberSearchIndex;
+import study.querydsl.index.MemberSnapshotFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 인덱스 예열 시간: DB 전체 조회 vs mmap 스냅샷 로드.
+ * 매 호출마다 빈 인덱스를 채우므로 기동 시 예열 구간만 잰다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MemberSnapshotBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int members;
+
+    private ConfigurableApplicationContext context;
+    private MemberIndexLoader memberIndexLoader;
+    private Path snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, 10, members);
+        memberIndexLoader = context.getBean(MemberIndexLoader.class);
+
+        snapshot = Files.createTempFile("member", ".snapshot");
+        MemberSnapshotFile.write(snapshot, 0L, 0L, memberIndexLoader::loadFromDatabase);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public MemberSearchIndex databaseWarmup() {
+        MemberSearchIndex index = new MemberSearchIndex();
+        memberIndexLoader.loadFromDatabase(index);
+        return index;
+    }
+
+    @Benchmark
+    public MemberSearchIndex snapshotWarmup() throws IOException {
+        MemberSearchIndex index = new MemberSearchIndex();
+        MemberSnapshotFile.read(snapshot, Collections.singletonList(index));
+        return index;
+    }
+}
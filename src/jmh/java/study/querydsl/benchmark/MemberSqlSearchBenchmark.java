@@ -0,0 +1,82 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.sql.SQLQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.sql.SqlMemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 조건으로 JPA(MemberRepositoryImpl.search)와 querydsl-sql(SqlMemberRepository.search) 비교.
+ * narrow: 팀 + 나이 범위 (수백 건), wide: 나이 범위만 (수만 건)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MemberSqlSearchBenchmark {
+
+    @Param({"100000"})
+    private int members;
+
+    @Param({"narrow", "wide"})
+    private String filter;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private MemberRepository memberRepository;
+    private SqlMemberRepository sqlMemberRepository;
+    private MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--member.query-guard.max-rows=0", "--member.query-guard.max-cost=0");
+        BenchmarkContext.seed(context, 100, members);
+        transactionTemplate = BenchmarkContext.transactionTemplate(context);
+        transactionTemplate.setReadOnly(true);
+        memberRepository = context.getBean(MemberRepository.class);
+        sqlMemberRepository = new SqlMemberRepository(context.getBean(SQLQueryFactory.class));
+
+        condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+        if ("narrow".equals(filter)) {
+            condition.setTeamName("team7");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> jpa() {
+        return transactionTemplate.execute(status -> memberRepository.search(condition));
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> sql() {
+        return transactionTemplate.execute(status -> sqlMemberRepository.search(condition));
+    }
+}
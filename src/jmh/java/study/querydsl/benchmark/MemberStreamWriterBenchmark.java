@@ -0,0 +1,86 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.stream.MemberStreamWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 1만명 전체를 JSON 으로 쓰는 비용. 행 하나당으로 환산한다. (OperationsPerInvocation)
+ * 행당 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 본다.
+ * ex) ./gradlew jmh -PjmhArgs='MemberStreamWriterBenchmark -prof gc'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MemberStreamWriterBenchmark {
+
+    private static final int MEMBERS = 10000;
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private MemberJpaRepository memberJpaRepository;
+    private MemberStreamWriter memberStreamWriter;
+    private ObjectMapper objectMapper;
+    private final MemberSearchCondition condition = new MemberSearchCondition();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--member.query-guard.max-rows=0", "--member.query-guard.max-cost=0");
+        BenchmarkContext.seed(context, 100, MEMBERS);
+        transactionTemplate = BenchmarkContext.transactionTemplate(context);
+        transactionTemplate.setReadOnly(true);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberStreamWriter = context.getBean(MemberStreamWriter.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public void jpaJackson() throws IOException {
+        objectMapper.writeValue(DISCARD, transactionTemplate.execute(status -> memberJpaRepository.search(condition)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MEMBERS)
+    public long directStream() throws IOException {
+        return memberStreamWriter.write(condition, DISCARD);
+    }
+}
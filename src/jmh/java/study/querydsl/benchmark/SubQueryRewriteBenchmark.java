@@ -0,0 +1,139 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.UserDto;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.MemberAggregateQueries;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * QuerydslBasic 의 서브쿼리 패턴과 {@link MemberAggregateQueries} 의 집계 선계산 방식 비교. 회원 100만명.
+ * 양쪽 모두 같은 엔티티/DTO 를 같은 건수만큼 읽으므로 차이는 서브쿼리 평가 비용이다. 쿼리 가드는 끈다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SubQueryRewriteBenchmark {
+
+    @Param({"1000000"})
+    private int members;
+
+    @Param({"100"})
+    private int teams;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private JPAQueryFactory jpaQueryFactory;
+    private MemberAggregateQueries memberAggregateQueries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--member.query-guard.max-rows=0", "--member.query-guard.max-cost=0");
+        BenchmarkContext.seed(context, teams, members);
+        EntityManager em = BenchmarkContext.entityManager(context);
+        transactionTemplate = BenchmarkContext.transactionTemplate(context);
+        transactionTemplate.setReadOnly(true);
+        jpaQueryFactory = new JPAQueryFactory(em);
+        memberAggregateQueries = context.getBean(MemberAggregateQueries.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int oldestSubQuery() {
+        QMember subMember = new QMember("subMember");
+        return size(() -> jpaQueryFactory
+                .selectFrom(QMember.member)
+                .where(QMember.member.age.eq(JPAExpressions.select(subMember.age.max()).from(subMember)))
+                .fetch());
+    }
+
+    @Benchmark
+    public int oldestRewritten() {
+        return size(memberAggregateQueries::findOldest);
+    }
+
+    @Benchmark
+    public int ageGoeAverageSubQuery() {
+        QMember subMember = new QMember("subMember");
+        return size(() -> jpaQueryFactory
+                .selectFrom(QMember.member)
+                .where(QMember.member.age.goe(JPAExpressions.select(subMember.age.avg()).from(subMember)))
+                .fetch());
+    }
+
+    @Benchmark
+    public int ageGoeAverageRewritten() {
+        return size(memberAggregateQueries::findAgeGoeAverage);
+    }
+
+    @Benchmark
+    public int userDtoSubQuery() {
+        QMember subMember = new QMember("subMember");
+        return size(() -> jpaQueryFactory
+                .select(Projections.fields(UserDto.class,
+                        QMember.member.username.as("name"),
+                        ExpressionUtils.as(JPAExpressions.select(subMember.age.max()).from(subMember), "age")))
+                .from(QMember.member)
+                .fetch());
+    }
+
+    @Benchmark
+    public int userDtoRewritten() {
+        return size(memberAggregateQueries::findUserDtosWithAgeMax);
+    }
+
+    @Benchmark
+    public int teamAverageCorrelatedSubQuery() {
+        QMember subMember = new QMember("subMember");
+        return size(() -> jpaQueryFactory
+                .selectFrom(QMember.member)
+                .where(QMember.member.age.goe(JPAExpressions.select(subMember.age.avg())
+                        .from(subMember)
+                        .where(subMember.team.eq(QMember.member.team))))
+                .fetch());
+    }
+
+    @Benchmark
+    public int teamAverageTeamStatJoin() {
+        return size(memberAggregateQueries::findAgeGoeTeamAverage);
+    }
+
+    @Benchmark
+    public int teamAverageWindowFunction() {
+        return size(memberAggregateQueries::findAgeGoeTeamAverageByWindow);
+    }
+
+    private int size(Supplier<? extends List<?>> query) {
+        // 엔티티 조회는 영속성 컨텍스트를 쌓으므로 호출마다 트랜잭션을 닫는다.
+        return transactionTemplate.execute(status -> query.get().size());
+    }
+}
@@ -0,0 +1,182 @@
+package study.querydsl.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 열린 모델 부하: 응답을 기다리지 않고 ratePerSecond 간격으로 요청을 보낸다.
+ * 응답 시간은 실제로 보낸 시각이 아니라 보냈어야 할 시각부터 잰다. (coordinated omission 보정)
+ * 서버가 밀리면 워커 큐에서 기다린 시간도 응답 시간에 들어간다. 보낸 시각부터 잰 값은 serviceTime 으로 따로 둔다.
+ * 끝날 때까지 보내지 못한 요청은 오류로 세고, 응답 시간은 그때까지 기다린 시간(now - intended)으로 넣는다.
+ */
+public class ConstantArrivalRateRun {
+
+    private final int ratePerSecond;
+    private final int workers;
+    private final int timeoutMillis;
+
+    /**
+     * @param timeoutMillis 요청마다 connect / read 타임아웃
+     */
+    public ConstantArrivalRateRun(int ratePerSecond, int workers, int timeoutMillis) {
+        this.ratePerSecond = ratePerSecond;
+        this.workers = workers;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Result run(URL url, long durationSeconds) throws InterruptedException {
+        Histogram responseTime = new ConcurrentHistogram(3);
+        Histogram serviceTime = new ConcurrentHistogram(3);
+        AtomicLong successes = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long requests = ratePerSecond * durationSeconds;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intended = start + i * intervalNanos;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            executor.execute(new Request(intended, () -> {
+                long sent = System.nanoTime();
+                if (get(url)) {
+                    successes.incrementAndGet();
+                } else {
+                    errors.incrementAndGet();
+                }
+                long end = System.nanoTime();
+                responseTime.recordValue(end - intended);
+                serviceTime.recordValue(end - sent);
+            }));
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(durationSeconds + 60, TimeUnit.SECONDS)) {
+            List<Runnable> dropped = executor.shutdownNow();
+            long now = System.nanoTime();
+            for (Runnable request : dropped) {
+                errors.incrementAndGet();
+                responseTime.recordValue(now - ((Request) request).intended);
+            }
+            // 보내는 중인 요청은 타임아웃 안에 끝난다.
+            executor.awaitTermination(timeoutMillis * 2L, TimeUnit.MILLISECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(url, ratePerSecond, requests, successes.get(), errors.get(), elapsed, responseTime, serviceTime);
+    }
+
+    // 응답 본문을 끝까지 읽어야 keep-alive 커넥션을 다시 쓴다.
+    private boolean get(URL url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setRequestProperty("Accept", "application/json");
+            int status = connection.getResponseCode();
+            InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            if (body != null) {
+                try (InputStream in = body) {
+                    byte[] buffer = new byte[8192];
+                    while (in.read(buffer) != -1) {
+                        // discard
+                    }
+                }
+            }
+            return status == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // shutdownNow 가 돌려준 요청의 보냈어야 할 시각을 알기 위해
+    private static final class Request implements Runnable {
+
+        private final long intended;
+        private final Runnable task;
+
+        Request(long intended, Runnable task) {
+            this.intended = intended;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    public static class Result {
+
+        private final URL url;
+        private final int ratePerSecond;
+        private final long requests;
+        private final long successes;
+        private final long errors;
+        private final long elapsedNanos;
+        private final Histogram responseTime;
+        private final Histogram serviceTime;
+
+        Result(URL url, int ratePerSecond, long requests, long successes, long errors, long elapsedNanos,
+               Histogram responseTime, Histogram serviceTime) {
+            this.url = url;
+            this.ratePerSecond = ratePerSecond;
+            this.requests = requests;
+            this.successes = successes;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.responseTime = responseTime;
+            this.serviceTime = serviceTime;
+        }
+
+        public URL getUrl() {
+            return url;
+        }
+
+        public int getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return 200 으로 끝난 요청 수
+         */
+        public long getSuccesses() {
+            return successes;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return 초당 성공 응답 수. 보낸 요청 수가 아니라 끝까지 처리된 것만 센다. (오류는 getErrors)
+         */
+        public double getThroughput() {
+            return successes * 1e9 / elapsedNanos;
+        }
+
+        public Histogram getResponseTime() {
+            return responseTime;
+        }
+
+        public Histogram getServiceTime() {
+            return serviceTime;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package study.querydsl.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 내장 서버 + in-memory H2 (local 프로파일, InitMember 데이터)를 띄우고
+ * /v1, /v2, /v3/members 를 조건 모양별로 고정 도착률 부하를 건다.
+ * 결과 표는 출력하고 build/reports/loadtest/summary.txt 에도 쓴다. 조합별 응답 시간 분포는 .hgrm (밀리초).
+ * ex) ./gradlew loadTest -PloadTestArgs='rate=500 duration=30 warmup=10 workers=64 timeout-ms=5000'
+ */
+public class MemberLoadTest {
+
+    private static final List<String> ENDPOINTS = Arrays.asList("/v1/members", "/v2/members", "/v3/members");
+
+    private static final Map<String, String> SHAPES = new LinkedHashMap<>();
+
+    static {
+        SHAPES.put("all", "");
+        SHAPES.put("team", "teamName=teamB");
+        SHAPES.put("age-range", "ageGoe=30&ageLoe=60");
+        SHAPES.put("username-team", "username=member31&teamName=teamA");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "20"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "5"));
+        int workers = Integer.parseInt(options.getOrDefault("workers", "64"));
+        int timeoutMillis = Integer.parseInt(options.getOrDefault("timeout-ms", "10000"));
+        File reportDir = new File(options.getOrDefault("report-dir", "build/reports/loadtest"));
+
+        // HttpURLConnection keep-alive 풀 (기본 5)
+        System.setProperty("http.maxConnections", String.valueOf(workers));
+
+        ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) SpringApplication.run(
+                QuerydslApplication.class,
+                "--spring.profiles.active=local",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=warn");
+        reportDir.mkdirs();
+        try (PrintStream summary = new PrintStream(new FileOutputStream(new File(reportDir, "summary.txt")))) {
+            int port = context.getWebServer().getPort();
+            ConstantArrivalRateRun run = new ConstantArrivalRateRun(rate, workers, timeoutMillis);
+
+            report(summary, String.format("%-14s %-14s %7s %9s %7s %9s %9s %9s %9s %9s %11s",
+                    "endpoint", "shape", "rate", "ok/s", "errors",
+                    "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "svc p99(ms)"));
+            for (String endpoint : ENDPOINTS) {
+                for (Map.Entry<String, String> shape : SHAPES.entrySet()) {
+                    URL url = new URL("http://localhost:" + port + endpoint
+                            + (shape.getValue().isEmpty() ? "" : "?" + shape.getValue()));
+                    if (warmup > 0) {
+                        run.run(url, warmup);
+                    }
+                    ConstantArrivalRateRun.Result result = run.run(url, duration);
+                    report(summary, format(endpoint, shape.getKey(), result));
+                    write(new File(reportDir, endpoint.replace('/', '_').substring(1) + "-" + shape.getKey() + ".hgrm"),
+                            result.getResponseTime());
+                }
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void report(PrintStream summary, String line) {
+        System.out.println(line);
+        summary.println(line);
+    }
+
+    private static String format(String endpoint, String shape, ConstantArrivalRateRun.Result result) {
+        Histogram response = result.getResponseTime();
+        return String.format("%-14s %-14s %7d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f %11.2f",
+                endpoint, shape, result.getRatePerSecond(), result.getThroughput(), result.getErrors(),
+                millis(response.getValueAtPercentile(50)), millis(response.getValueAtPercentile(90)),
+                millis(response.getValueAtPercentile(99)), millis(response.getValueAtPercentile(99.9)),
+                millis(response.getMaxValue()), millis(result.getServiceTime().getValueAtPercentile(99)));
+    }
+
+    private static void write(File file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1e6);
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // key=value 형식
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("expected key=value: " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+}
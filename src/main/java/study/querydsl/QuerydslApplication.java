@@ -2,8 +2,13 @@ package study.querydsl;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import study.querydsl.repository.support.ExtendedQuerydslJpaRepository;
 
 @SpringBootApplication
+@EnableScheduling
+@EnableJpaRepositories(repositoryBaseClass = ExtendedQuerydslJpaRepository.class)
 public class QuerydslApplication {
 
 	public static void main(String[] args) {
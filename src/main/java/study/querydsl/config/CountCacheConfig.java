@@ -0,0 +1,46 @@
+package study.querydsl.config;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.repository.support.CountCache;
+import study.querydsl.repository.support.ExtendedQuerydslJpaRepository;
+
+/**
+ * member.count-cache.enabled=true 면 리포지토리의 findPage count 를 캐시한다.
+ * 리포지토리 구현체는 Spring Data 가 생성자로만 만들므로 만들어진 프록시의 target 에 넣어준다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.count-cache.enabled", havingValue = "true")
+public class CountCacheConfig {
+
+    @Bean
+    public static CountCache countCache(@Value("${member.count-cache.ttl-ms:10000}") long ttlMillis,
+                                        @Value("${member.count-cache.max-size:1000}") int maxSize) {
+        return new CountCache(ttlMillis, maxSize);
+    }
+
+    @Bean
+    public static BeanPostProcessor countCacheRepositoryPostProcessor(CountCache countCache) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof Advised && ((Advised) bean).getTargetSource().isStatic()) {
+                    try {
+                        Object target = ((Advised) bean).getTargetSource().getTarget();
+                        if (target instanceof ExtendedQuerydslJpaRepository) {
+                            ((ExtendedQuerydslJpaRepository<?, ?>) target).setCountCache(countCache);
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException("cannot resolve repository target: " + beanName, e);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+}
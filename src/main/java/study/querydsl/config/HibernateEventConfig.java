@@ -0,0 +1,72 @@
+package study.querydsl.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostActionEventListener;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 스프링 빈으로 등록된 Hibernate 이벤트 리스너를 SessionFactory 생성 시점에 붙인다.
+ * InitMember 같은 초기 데이터 적재보다 먼저 등록되어야 하므로 Integrator 로 등록한다.
+ */
+@Configuration
+public class HibernateEventConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer eventListenerIntegrator(List<PostActionEventListener> listeners) {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> Collections.singletonList(new EventListenerIntegrator(listeners)));
+    }
+
+    static class EventListenerIntegrator implements Integrator {
+
+        private final List<PostActionEventListener> listeners;
+
+        EventListenerIntegrator(List<PostActionEventListener> listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                              SessionFactoryServiceRegistry serviceRegistry) {
+            EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+            for (PostActionEventListener listener : listeners) {
+                if (listener instanceof PostCommitInsertEventListener) {
+                    registry.appendListeners(EventType.POST_COMMIT_INSERT, (PostCommitInsertEventListener) listener);
+                } else if (listener instanceof PostInsertEventListener) {
+                    registry.appendListeners(EventType.POST_INSERT, (PostInsertEventListener) listener);
+                }
+                if (listener instanceof PostCommitUpdateEventListener) {
+                    registry.appendListeners(EventType.POST_COMMIT_UPDATE, (PostCommitUpdateEventListener) listener);
+                } else if (listener instanceof PostUpdateEventListener) {
+                    registry.appendListeners(EventType.POST_UPDATE, (PostUpdateEventListener) listener);
+                }
+                if (listener instanceof PostCommitDeleteEventListener) {
+                    registry.appendListeners(EventType.POST_COMMIT_DELETE, (PostCommitDeleteEventListener) listener);
+                } else if (listener instanceof PostDeleteEventListener) {
+                    registry.appendListeners(EventType.POST_DELETE, (PostDeleteEventListener) listener);
+                }
+            }
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
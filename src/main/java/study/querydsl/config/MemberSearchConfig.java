@@ -0,0 +1,60 @@
+package study.querydsl.config;
+
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import study.querydsl.index.InMemoryMemberRepository;
+import study.querydsl.index.MemberBitmapIndex;
+import study.querydsl.index.MemberSearchIndex;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberRepositoryCustom;
+import study.querydsl.sql.SqlMemberRepository;
+
+/**
+ * 검색 구현 선택. member.search.mode = jpa(기본) | memory | sql
+ * member.search.bitmap-count=true 면 searchPageComplex 의 count 를 비트맵 인덱스로 구한다.
+ * (쓰기 트랜잭션 안이거나 replica 라우팅을 켜면 내용과 어긋나지 않게 SQL count 를 쓴다)
+ */
+@Configuration
+public class MemberSearchConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "member.search.mode", havingValue = "memory")
+    public MemberSearchIndex memberSearchIndex() {
+        return new MemberSearchIndex();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "member.search.mode", havingValue = "sql")
+    public SqlMemberRepository sqlMemberRepository(SQLQueryFactory sqlQueryFactory) {
+        return new SqlMemberRepository(sqlQueryFactory);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "member.search.bitmap-count", havingValue = "true")
+    public MemberBitmapIndex memberBitmapIndex() {
+        return new MemberBitmapIndex();
+    }
+
+    @Bean
+    @Primary
+    public MemberRepositoryCustom memberSearchRepository(@Value("${member.search.mode:jpa}") String mode,
+                                                         MemberRepository memberRepository,
+                                                         ObjectProvider<MemberSearchIndex> memberSearchIndex,
+                                                         ObjectProvider<SqlMemberRepository> sqlMemberRepository) {
+        switch (mode) {
+            case "jpa":
+                return memberRepository;
+            case "memory":
+                return new InMemoryMemberRepository(memberSearchIndex.getObject());
+            case "sql":
+                return sqlMemberRepository.getObject();
+            default:
+                throw new IllegalArgumentException("unknown member.search.mode: " + mode);
+        }
+    }
+}
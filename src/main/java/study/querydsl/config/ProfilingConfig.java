@@ -0,0 +1,70 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.profiling.MemberProfilingFilter;
+import study.querydsl.profiling.ProfilingDataSource;
+import study.querydsl.profiling.SlowQueryEndpoint;
+import study.querydsl.profiling.SlowQueryRecorder;
+
+import javax.sql.DataSource;
+
+/**
+ * dataSource 빈을 ProfilingDataSource 로 감싼다.
+ * <ul>
+ *     <li>member.profiling: MemberController 의 조회 엔드포인트별 할당량/CPU/SQL 수/행 수 (member.request.* 메트릭)</li>
+ *     <li>member.slow-query: 느린 SQL 로그 + EXPLAIN, /actuator/slowqueries</li>
+ * </ul>
+ * 둘 다 꺼져 있으면 커넥션을 감싸지 않는다. slow-query 가 켜져 있으면 모든 커넥션을 감싼다. (ProfilingDataSource 참고)
+ * 그래서 slow-query 와 바인딩 값 수집(params)은 기본으로 꺼 두고 조사할 때만 켠다.
+ * /actuator/slowqueries 는 바인딩 값을 그대로 돌려주므로 기본 노출 목록에 없다. (application.yml 참고)
+ */
+@Configuration
+public class ProfilingConfig {
+
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(
+            ObjectProvider<SlowQueryRecorder> slowQueryRecorder,
+            @Value("${member.slow-query.params:false}") boolean captureParams) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && "dataSource".equals(beanName)) {
+                    return new ProfilingDataSource((DataSource) bean, slowQueryRecorder.getIfAvailable(), captureParams);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "member.profiling.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<MemberProfilingFilter> memberProfilingFilter(
+            MeterRegistry meterRegistry,
+            @Value("${member.profiling.debug-header:false}") boolean debugHeader) {
+        FilterRegistrationBean<MemberProfilingFilter> registration =
+                new FilterRegistrationBean<>(new MemberProfilingFilter(meterRegistry, debugHeader));
+        registration.addUrlPatterns("/v1/members", "/v2/members", "/v3/members", "/v4/members");
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "member.slow-query.enabled", havingValue = "true")
+    public static SlowQueryRecorder slowQueryRecorder(@Value("${member.slow-query.threshold-ms:100}") long thresholdMillis,
+                                                      @Value("${member.slow-query.capacity:200}") int capacity,
+                                                      @Value("${member.slow-query.explain:true}") boolean explain) {
+        return new SlowQueryRecorder(thresholdMillis, capacity, explain);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "member.slow-query.enabled", havingValue = "true")
+    public SlowQueryEndpoint slowQueryEndpoint(SlowQueryRecorder slowQueryRecorder) {
+        return new SlowQueryEndpoint(slowQueryRecorder);
+    }
+}
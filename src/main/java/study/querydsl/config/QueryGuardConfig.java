@@ -0,0 +1,32 @@
+package study.querydsl.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.querydsl.repository.support.GuardedJPAQueryFactory;
+import study.querydsl.repository.support.QueryGuard;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 요청을 처리하는 리포지토리가 쓰는 JPAQueryFactory. 0 이하면 해당 제한을 끈다.
+ * 전체를 읽어야 하는 인덱스 적재, 벌크 연산은 직접 만든 JPAQueryFactory 를 쓴다.
+ */
+@Configuration
+public class QueryGuardConfig {
+
+    @Bean
+    public QueryGuard queryGuard(@Value("${member.query-guard.timeout-ms:5000}") int timeoutMillis,
+                                 @Value("${member.query-guard.max-rows:10000}") int maxRows,
+                                 @Value("${member.query-guard.max-cost:1000000}") long maxCost,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new QueryGuard(timeoutMillis, maxRows, maxCost, meterRegistry.getIfAvailable());
+    }
+
+    @Bean
+    public GuardedJPAQueryFactory jpaQueryFactory(EntityManager em, QueryGuard queryGuard) {
+        return new GuardedJPAQueryFactory(em, queryGuard);
+    }
+}
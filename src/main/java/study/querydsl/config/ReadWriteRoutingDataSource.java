@@ -0,0 +1,65 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * readOnly 트랜잭션이면 replica, 아니면(쓰기, 트랜잭션 밖, DDL) primary.
+ * 트랜잭션 시작 시점에는 readOnly 플래그가 아직 없으므로 LazyConnectionDataSourceProxy 로 감싸서 써야 한다.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private final List<HikariDataSource> pools;
+    private final String[] replicaKeys;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routeCounters = new HashMap<>();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaKeys = new String[replicas.size()];
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys[i] = replicas.get(i).getPoolName();
+            targets.put(replicaKeys[i], replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        for (Object key : targets.keySet()) {
+            routeCounters.put((String) key, meterRegistry == null ? null
+                    : Counter.builder("member.datasource.route").tag("route", (String) key).register(meterRegistry));
+        }
+        this.pools = new ArrayList<>(replicas);
+        this.pools.add(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = PRIMARY;
+        if (replicaKeys.length > 0 && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            key = replicaKeys[Math.floorMod(next.getAndIncrement(), replicaKeys.length)];
+        }
+        Counter counter = routeCounters.get(key);
+        if (counter != null) {
+            counter.increment();
+        }
+        return key;
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,49 @@
+package study.querydsl.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Accept 헤더로 응답 형식을 고른다. (jackson-dataformat-smile/cbor 가 있으면 Spring MVC 가 컨버터를 등록한다)
+ * <ul>
+ *     <li>application/json</li>
+ *     <li>application/x-jackson-smile: 필드명 + 반복되는 짧은 문자열(teamName)을 백레퍼런스로 (사전 인코딩)</li>
+ *     <li>application/cbor</li>
+ * </ul>
+ * 압축은 server.compression (gzip). 내장 톰캣은 brotli 와 압축 레벨 설정을 지원하지 않는다.
+ */
+@Configuration
+public class ResponseFormatConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+    private final boolean sharedStringValues;
+
+    public ResponseFormatConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                                @Value("${member.response.smile-shared-strings:true}") boolean sharedStringValues) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.sharedStringValues = sharedStringValues;
+    }
+
+    public static SmileFactory smileFactory(boolean sharedStringValues) {
+        SmileFactory factory = new SmileFactory();
+        factory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, sharedStringValues);
+        return factory;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        Jackson2ObjectMapperBuilder builder = objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::smile);
+        MappingJackson2SmileHttpMessageConverter smile =
+                new MappingJackson2SmileHttpMessageConverter(builder.factory(smileFactory(sharedStringValues)).build());
+        converters.replaceAll(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter ? smile : converter);
+    }
+}
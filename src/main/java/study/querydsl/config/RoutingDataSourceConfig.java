@@ -0,0 +1,64 @@
+package study.querydsl.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * member.datasource.routing.enabled=true 면 spring.datasource 대신 primary/replica 풀을 만들고
+ * 트랜잭션의 readOnly 여부로 나눈다. 풀마다 poolName 태그로 hikaricp.* 메트릭이 잡힌다.
+ * replica 는 복제 지연이 있으므로 방금 쓴 데이터를 바로 읽어야 하는 곳은 readOnly 를 쓰지 않는다.
+ * replica 의 스키마와 데이터는 DB 복제(예: MySQL/PostgreSQL replication)로 primary 에서 받는다고 가정한다.
+ * ddl-auto 는 트랜잭션 밖에서 돌아 primary 에만 적용되므로, 복제가 아닌 별도 DB 를 replica 로 쓰려면
+ * 스키마와 데이터를 직접 맞춰야 한다. (RoutingDataSourceConfigTest 는 H2 SCRIPT/RUNSCRIPT 로 흉내낸다)
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(RoutingDataSourceProperties properties,
+                                                        ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        HikariDataSource primary = pool("primary", properties.getPrimary(), false, registry);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            replicas.add(pool("replica-" + i, properties.getReplicas().get(i), true, registry));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, registry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private HikariDataSource pool(String name, RoutingDataSourceProperties.Pool properties, boolean readOnly,
+                                  MeterRegistry registry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(properties.getUrl());
+        config.setUsername(properties.getUsername());
+        config.setPassword(properties.getPassword());
+        config.setMaximumPoolSize(properties.getMaximumPoolSize());
+        config.setReadOnly(readOnly);
+        if (registry != null) {
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * member.datasource.primary 는 쓰기, member.datasource.replicas 는 readOnly 트랜잭션이 쓰는 풀.
+ * replica 를 추가하면 읽기가 라운드로빈으로 나뉜다. 비어 있으면 읽기도 primary 로 간다.
+ */
+@Data
+@ConfigurationProperties("member.datasource")
+public class RoutingDataSourceProperties {
+
+    private Pool primary = new Pool();
+    private List<Pool> replicas = new ArrayList<>();
+
+    @Data
+    public static class Pool {
+        private String url;
+        private String username = "sa";
+        private String password = "";
+        private int maximumPoolSize = 10;
+    }
+}
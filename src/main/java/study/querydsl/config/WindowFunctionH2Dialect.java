@@ -0,0 +1,33 @@
+package study.querydsl.config;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * H2 윈도우 함수를 JPQL function('...') 으로 쓸 수 있게 등록한다. (H2 1.4.198+)
+ * 반환 타입이 null 이면 첫 인자 타입을 따른다.
+ * Querydsl 에서는 {@link study.querydsl.repository.support.WindowFunctions} 로 쓴다.
+ */
+public class WindowFunctionH2Dialect extends H2Dialect {
+
+    public WindowFunctionH2Dialect() {
+        super();
+        registerFunction("rank_over", new SQLFunctionTemplate(StandardBasicTypes.LONG,
+                "rank() over (partition by ?1 order by ?2)"));
+        registerFunction("rank_desc_over", new SQLFunctionTemplate(StandardBasicTypes.LONG,
+                "rank() over (partition by ?1 order by ?2 desc)"));
+        registerFunction("row_number_over", new SQLFunctionTemplate(StandardBasicTypes.LONG,
+                "row_number() over (partition by ?1 order by ?2)"));
+        registerFunction("avg_over", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "avg(cast(?1 as double)) over (partition by ?2)"));
+        registerFunction("avg_over_all", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE,
+                "avg(cast(?1 as double)) over ()"));
+        registerFunction("max_over", new SQLFunctionTemplate(null, "max(?1) over (partition by ?2)"));
+        registerFunction("max_over_all", new SQLFunctionTemplate(null, "max(?1) over ()"));
+        registerFunction("count_over", new SQLFunctionTemplate(StandardBasicTypes.LONG,
+                "count(*) over (partition by ?1)"));
+        registerFunction("running_sum_over", new SQLFunctionTemplate(StandardBasicTypes.LONG,
+                "sum(?1) over (partition by ?2 order by ?3 rows between unbounded preceding and current row)"));
+    }
+}
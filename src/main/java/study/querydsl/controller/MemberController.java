@@ -1,25 +1,49 @@
 package study.querydsl.controller;
 
+import com.querydsl.core.types.Predicate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.querydsl.binding.QuerydslPredicate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
 import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberPredicateSearch;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberRepositoryCustom;
+import study.querydsl.repository.support.QueryBudgetExceededException;
+import study.querydsl.stream.MemberFluxSearch;
+import study.querydsl.stream.MemberStreamWriter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
 public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
-    private final MemberRepository memberRepository;
+    private final MemberRepositoryCustom memberSearchRepository;
+    private final MemberPredicateSearch memberPredicateSearch;
+    private final MemberStreamWriter memberStreamWriter;
+    private final MemberFluxSearch memberFluxSearch;
 
-    public MemberController(MemberJpaRepository memberJpaRepository, MemberRepository memberRepository) {
+    public MemberController(MemberJpaRepository memberJpaRepository, MemberRepositoryCustom memberSearchRepository,
+                            MemberPredicateSearch memberPredicateSearch, MemberStreamWriter memberStreamWriter,
+                            MemberFluxSearch memberFluxSearch) {
         this.memberJpaRepository = memberJpaRepository;
-        this.memberRepository = memberRepository;
+        this.memberSearchRepository = memberSearchRepository;
+        this.memberPredicateSearch = memberPredicateSearch;
+        this.memberStreamWriter = memberStreamWriter;
+        this.memberFluxSearch = memberFluxSearch;
     }
 
     @GetMapping("/v1/members")
@@ -27,13 +51,41 @@ public class MemberController {
         return memberJpaRepository.search(memberSearchCondition);
     }
 
+    // /v1/members 와 같은 결과(id 순)를 JDBC 커서에서 바로 JSON 으로 흘려보낸다. 건수 제한 없음.
+    @GetMapping(value = "/v1/members/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMembersV1(MemberSearchCondition memberSearchCondition) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> memberStreamWriter.write(memberSearchCondition, out));
+    }
+
+    // 한 줄에 MemberTeamDto 하나씩. 응답을 다 쓴 만큼만 다음 keyset 페이지를 읽는다.
+    @GetMapping(value = "/v1/members/flux", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+    public Flux<MemberTeamDto> fluxMembersV1(MemberSearchCondition memberSearchCondition) {
+        return memberFluxSearch.search(memberSearchCondition);
+    }
+
     @GetMapping("/v2/members")
     public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition memberSearchCondition, Pageable pageable) {
-        return memberRepository.searchPageSimple(memberSearchCondition, pageable);
+        return memberSearchRepository.searchPageSimple(memberSearchCondition, pageable);
     }
 
     @GetMapping("/v3/members")
     public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition memberSearchCondition, Pageable pageable) {
-        return memberRepository.searchPageComplex(memberSearchCondition, pageable);
+        return memberSearchRepository.searchPageComplex(memberSearchCondition, pageable);
+    }
+
+    // ex) /v4/members?team.name=teamA&age=10&age=30&sort=age
+    @GetMapping("/v4/members")
+    public Page<MemberTeamDto> searchMemberV4(
+            @QuerydslPredicate(root = Member.class, bindings = MemberRepository.class) Predicate predicate,
+            Pageable pageable) {
+        return memberPredicateSearch.search(predicate, pageable);
+    }
+
+    // 인덱스를 못 타는 조건, 쿼리 가드가 막은 쿼리는 클라이언트가 조건을 좁혀야 한다.
+    @ExceptionHandler({MemberPredicateSearch.UnsupportedPredicateException.class, QueryBudgetExceededException.class})
+    public void rejectedQuery(RuntimeException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
     }
 }
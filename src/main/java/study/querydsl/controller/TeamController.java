@@ -0,0 +1,23 @@
+package study.querydsl.controller;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamStatDto;
+import study.querydsl.repository.TeamStatRepository;
+
+import java.util.List;
+
+@RestController
+public class TeamController {
+
+    private final TeamStatRepository teamStatRepository;
+
+    public TeamController(TeamStatRepository teamStatRepository) {
+        this.teamStatRepository = teamStatRepository;
+    }
+
+    @GetMapping("/v1/teams/stats")
+    public List<TeamStatDto> teamStats() {
+        return teamStatRepository.findTeamStats();
+    }
+}
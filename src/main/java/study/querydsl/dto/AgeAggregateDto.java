@@ -0,0 +1,23 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class AgeAggregateDto {
+
+    private long count;
+    private Integer ageMin;
+    private Integer ageMax;
+    private Double ageAvg;
+
+    @QueryProjection
+    public AgeAggregateDto(long count, Integer ageMin, Integer ageMax, Double ageAvg) {
+        this.count = count;
+        this.ageMin = ageMin;
+        this.ageMax = ageMax;
+        this.ageAvg = ageAvg;
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BatchSaveResult {
+
+    private final long rows;
+    private final int windows;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+
+    public BatchSaveResult(long rows, int windows, long elapsedNanos) {
+        this.rows = rows;
+        this.windows = windows;
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.rowsPerSecond = elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,17 @@
+package study.querydsl.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class MemberAgeAvgDto {
+
+    private String username;
+    private Double ageAvg;
+
+    public MemberAgeAvgDto(String username, Double ageAvg) {
+        this.username = username;
+        this.ageAvg = ageAvg;
+    }
+}
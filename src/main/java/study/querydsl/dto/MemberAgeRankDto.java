@@ -0,0 +1,33 @@
+package study.querydsl.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 팀 안에서 나이 순위와 팀 평균/최대 나이. 윈도우 함수 한 번의 스캔으로 구한다.
+ */
+@Getter
+@ToString
+public class MemberAgeRankDto {
+
+    private Long memberId;
+    private String username;
+    private int age;
+    private Long teamId;
+    private long ageRank;
+    private Double teamAgeAvg;
+    private Integer teamAgeMax;
+
+    @QueryProjection
+    public MemberAgeRankDto(Long memberId, String username, int age, Long teamId, long ageRank, Double teamAgeAvg,
+                            Integer teamAgeMax) {
+        this.memberId = memberId;
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+        this.ageRank = ageRank;
+        this.teamAgeAvg = teamAgeAvg;
+        this.teamAgeMax = teamAgeMax;
+    }
+}
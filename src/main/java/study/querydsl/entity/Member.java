@@ -3,22 +3,33 @@ package study.querydsl.entity;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
+// username 은 회원 식별 키. (MemberImporter 가 username 으로 merge 한다) 유니크 제약이 인덱스도 겸한다.
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_member_username", columnNames = "username"))
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = "study.querydsl.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
 
     private String username;
     private int age;
 
+    // 낙관적 락. 벌크 update 에서도 같이 올려야 한다.
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -39,9 +50,16 @@ public class Member {
         }
     }
 
+    /**
+     * 연관관계 주인(Member.team)만 바꾸면 FK 는 반영된다.
+     * 팀의 members 컬렉션은 로딩하지 않는다. (Team.addMember/removeMember 참고)
+     */
     public void changeTeam(Team team) {
+        if (this.team != null && this.team != team) {
+            this.team.removeMember(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        team.addMember(this);
     }
 
     public Long getId() {
@@ -60,6 +78,10 @@ public class Member {
         return team;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
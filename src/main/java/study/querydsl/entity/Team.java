@@ -3,31 +3,61 @@ package study.querydsl.entity;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.Table;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "team_seq")
+    @GenericGenerator(name = "team_seq", strategy = "study.querydsl.entity.PooledSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     private Long id;
     private String name;
 
+    // extra lazy: size()/contains() 는 컬렉션 전체를 로딩하지 않고 쿼리로 처리
     @OneToMany(mappedBy = "team")
+    @LazyCollection(LazyCollectionOption.EXTRA)
     private List<Member> members = new ArrayList<>();
 
     public Team(String name) {
         this.name = name;
     }
 
+    /**
+     * 아직 로딩되지 않은 inverse bag 에 대한 add 는 Hibernate 가 큐에 쌓아두므로 컬렉션을 로딩하지 않는다.
+     */
+    void addMember(Member member) {
+        members.add(member);
+    }
+
+    /**
+     * remove 는 컬렉션을 로딩하므로 이미 로딩된 경우에만 반영한다.
+     * 로딩 전이면 나중에 로딩될 때 DB(연관관계 주인) 기준으로 읽힌다.
+     */
+    void removeMember(Member member) {
+        if (Hibernate.isInitialized(members)) {
+            members.remove(member);
+        }
+    }
+
     public Long getId() {
         return id;
     }
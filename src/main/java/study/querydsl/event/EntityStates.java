@@ -0,0 +1,39 @@
+package study.querydsl.event;
+
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.persister.entity.EntityPersister;
+import study.querydsl.entity.Team;
+
+/**
+ * 이벤트의 state 배열에서 값을 꺼내는 헬퍼. 프록시는 초기화하지 않는다.
+ */
+final class EntityStates {
+
+    private EntityStates() {
+    }
+
+    static Object get(EntityPersister persister, Object[] state, String propertyName) {
+        if (state == null) {
+            return null;
+        }
+        return state[persister.getEntityMetamodel().getPropertyIndex(propertyName)];
+    }
+
+    static Integer getInt(EntityPersister persister, Object[] state, String propertyName) {
+        return (Integer) get(persister, state, propertyName);
+    }
+
+    static Long teamId(EntityPersister persister, Object[] state) {
+        return teamId(get(persister, state, "team"));
+    }
+
+    static Long teamId(Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+}
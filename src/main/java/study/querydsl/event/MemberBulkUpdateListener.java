@@ -0,0 +1,46 @@
+package study.querydsl.event;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.MemberTeamViewRepository;
+import study.querydsl.repository.TeamStatRepository;
+
+/**
+ * 벌크 연산과 같은 트랜잭션에서 team_stat, member_team_view 를 다시 만든다.
+ * 이벤트에 바뀐 팀/회원이 있으면 그 행만, 없으면 전체를 다시 만든다.
+ */
+@Component
+public class MemberBulkUpdateListener {
+
+    private final TeamStatRepository teamStatRepository;
+    private final MemberTeamViewRepository memberTeamViewRepository;
+    private final boolean viewEnabled;
+
+    public MemberBulkUpdateListener(TeamStatRepository teamStatRepository,
+                                    MemberTeamViewRepository memberTeamViewRepository,
+                                    @Value("${member.view.enabled:true}") boolean viewEnabled) {
+        this.teamStatRepository = teamStatRepository;
+        this.memberTeamViewRepository = memberTeamViewRepository;
+        this.viewEnabled = viewEnabled;
+    }
+
+    @EventListener
+    public void onBulkUpdate(MemberBulkUpdatedEvent event) {
+        if (event.getUpdatedRows() == 0) {
+            return;
+        }
+        if (event.getTeamIds() != null) {
+            teamStatRepository.rebuild(event.getTeamIds());
+        } else {
+            teamStatRepository.rebuild();
+        }
+        if (viewEnabled) {
+            if (event.getMemberIds() != null) {
+                memberTeamViewRepository.rebuild(event.getMemberIds());
+            } else {
+                memberTeamViewRepository.rebuild();
+            }
+        }
+    }
+}
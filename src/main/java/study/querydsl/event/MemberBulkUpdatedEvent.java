@@ -0,0 +1,57 @@
+package study.querydsl.event;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Hibernate 이벤트를 거치지 않는 벌크 update/insert 가 member 테이블을 바꿨음을 알린다.
+ * 파생 데이터(team_stat, member_team_view, 인메모리 인덱스)를 다시 맞추는 데 쓴다.
+ * 바뀐 회원 / 영향받은 팀을 알면 그 범위만 다시 맞추고, 모르면(null) 전체를 다시 맞춘다.
+ */
+public class MemberBulkUpdatedEvent {
+
+    private final String operation;
+    private final long updatedRows;
+    private final Set<Long> memberIds;
+    private final Set<Long> teamIds;
+
+    /**
+     * 바뀐 범위를 모르는 경우. (전체)
+     */
+    public MemberBulkUpdatedEvent(String operation, long updatedRows) {
+        this(operation, updatedRows, null, null);
+    }
+
+    /**
+     * @param memberIds 값이 바뀐 회원 id, 모르면 null
+     * @param teamIds   통계가 바뀌었을 수 있는 팀 id (옮기기 전/후 팀 모두), 모르면 null
+     */
+    public MemberBulkUpdatedEvent(String operation, long updatedRows, Set<Long> memberIds, Set<Long> teamIds) {
+        this.operation = operation;
+        this.updatedRows = updatedRows;
+        this.memberIds = memberIds == null ? null : Collections.unmodifiableSet(memberIds);
+        this.teamIds = teamIds == null ? null : Collections.unmodifiableSet(teamIds);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getUpdatedRows() {
+        return updatedRows;
+    }
+
+    /**
+     * @return 바뀐 회원 id. null 이면 전체
+     */
+    public Set<Long> getMemberIds() {
+        return memberIds;
+    }
+
+    /**
+     * @return 영향받은 팀 id. null 이면 전체
+     */
+    public Set<Long> getTeamIds() {
+        return teamIds;
+    }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.event;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.index.MemberIndex;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 커밋된 Member/Team 변경만 {@link MemberIndex} 에 반영한다. 롤백된 변경은 인덱스에 들어가지 않는다.
+ */
+@Component
+public class MemberIndexEventListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final ObjectProvider<MemberIndex> memberIndexes;
+    private volatile List<MemberIndex> indexes;
+
+    public MemberIndexEventListener(ObjectProvider<MemberIndex> memberIndexes) {
+        this.memberIndexes = memberIndexes;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        apply(event.getEntity(), event.getPersister(), event.getId(), event.getState());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        apply(event.getEntity(), event.getPersister(), event.getId(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            forEachIndex(index -> index.removeMember((Long) event.getId()));
+        } else if (event.getEntity() instanceof Team) {
+            forEachIndex(index -> index.removeTeam((Long) event.getId()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return persister.getMappedClass() == Member.class || persister.getMappedClass() == Team.class;
+    }
+
+    private void apply(Object entity, EntityPersister persister, Object id, Object[] state) {
+        if (entity instanceof Member) {
+            forEachIndex(index -> index.putMember((Long) id,
+                    (String) EntityStates.get(persister, state, "username"),
+                    EntityStates.getInt(persister, state, "age"),
+                    EntityStates.teamId(persister, state)));
+        } else if (entity instanceof Team) {
+            forEachIndex(index -> index.putTeam((Long) id, (String) EntityStates.get(persister, state, "name")));
+        }
+    }
+
+    private void forEachIndex(Consumer<MemberIndex> action) {
+        // 리스너는 SessionFactory 보다 먼저 만들어지므로 인덱스 빈은 처음 쓸 때 찾는다.
+        List<MemberIndex> current = indexes;
+        if (current == null) {
+            current = memberIndexes.orderedStream().collect(Collectors.toList());
+            indexes = current;
+        }
+        current.forEach(action);
+    }
+}
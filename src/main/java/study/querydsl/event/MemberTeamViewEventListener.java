@@ -0,0 +1,122 @@
+package study.querydsl.event;
+
+import org.hibernate.Hibernate;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Objects;
+
+/**
+ * Member/Team 변경을 member_team_view 에 반영한다. (member.view.enabled=false 로 끌 수 있음)
+ * member row 를 다시 읽지 않고 이벤트 state 만으로 만들기 때문에 insert 배치를 깨지 않는다.
+ */
+@Component
+@ConditionalOnProperty(name = "member.view.enabled", havingValue = "true", matchIfMissing = true)
+public class MemberTeamViewEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String INSERT_MEMBER =
+            "insert into member_team_view (member_id, username, age, team_id, team_name) values (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_MEMBER =
+            "update member_team_view set username = ?, age = ?, team_id = ?, team_name = ? where member_id = ?";
+
+    private static final String DELETE_MEMBER =
+            "delete from member_team_view where member_id = ?";
+
+    private static final String RENAME_TEAM =
+            "update member_team_view set team_name = ? where team_id = ?";
+
+    private static final String DETACH_TEAM =
+            "update member_team_view set team_id = null, team_name = null where team_id = ?";
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            Object[] state = event.getState();
+            execute(event.getSession(), INSERT_MEMBER,
+                    event.getId(),
+                    EntityStates.get(persister, state, "username"),
+                    EntityStates.getInt(persister, state, "age"),
+                    EntityStates.teamId(persister, state),
+                    teamName(event.getSession(), EntityStates.get(persister, state, "team")));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        EntityPersister persister = event.getPersister();
+        Object[] state = event.getState();
+        if (event.getEntity() instanceof Member) {
+            execute(event.getSession(), UPDATE_MEMBER,
+                    EntityStates.get(persister, state, "username"),
+                    EntityStates.getInt(persister, state, "age"),
+                    EntityStates.teamId(persister, state),
+                    teamName(event.getSession(), EntityStates.get(persister, state, "team")),
+                    event.getId());
+        } else if (event.getEntity() instanceof Team) {
+            Object newName = EntityStates.get(persister, state, "name");
+            if (event.getOldState() == null || !Objects.equals(EntityStates.get(persister, event.getOldState(), "name"), newName)) {
+                execute(event.getSession(), RENAME_TEAM, newName, event.getId());
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            execute(event.getSession(), DELETE_MEMBER, event.getId());
+        } else if (event.getEntity() instanceof Team) {
+            execute(event.getSession(), DETACH_TEAM, event.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private String teamName(EventSource session, Object team) {
+        if (team == null) {
+            return null;
+        }
+        if (Hibernate.isInitialized(team)) {
+            return ((Team) Hibernate.unproxy(team)).getName();
+        }
+        // 초기화 안 된 프록시는 이미 DB 에 있는 팀이므로 이름만 조회한다.
+        Long teamId = EntityStates.teamId(team);
+        String[] name = new String[1];
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("select name from team where id = ?")) {
+                ps.setLong(1, teamId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    name[0] = rs.next() ? rs.getString(1) : null;
+                }
+            }
+        });
+        return name[0];
+    }
+
+    private void execute(EventSource session, String sql, Object... params) {
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                ps.executeUpdate();
+            }
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package study.querydsl.event;
+
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.sql.PreparedStatement;
+import java.util.Objects;
+
+/**
+ * Member insert/update/delete 를 team_stat 에 증분 반영한다.
+ * 같은 커넥션(트랜잭션)에서 JDBC 로 바로 실행하므로 롤백되면 통계도 같이 롤백된다.
+ * 벌크 연산(JPQL update/delete)은 이벤트가 발생하지 않으니 {@code TeamStatRepository#rebuild()} 로 맞춘다.
+ */
+@Component
+public class TeamStatEventListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final String INSERT_TEAM =
+            "insert into team_stat (team_id, member_count, age_sum) values (?, 0, 0)";
+
+    private static final String DELETE_TEAM =
+            "delete from team_stat where team_id = ?";
+
+    private static final String ADD_MEMBER =
+            "update team_stat set member_count = member_count + 1, age_sum = age_sum + ?," +
+                    " age_min = case when age_min is null or age_min > ? then ? else age_min end," +
+                    " age_max = case when age_max is null or age_max < ? then ? else age_max end" +
+                    " where team_id = ?";
+
+    // 빠지는 나이가 min/max 인 경우에만 해당 팀을 다시 스캔한다.
+    private static final String REMOVE_MEMBER =
+            "update team_stat set member_count = member_count - 1, age_sum = age_sum - ?," +
+                    " age_min = case when age_min = ? then (select min(age) from member where team_id = ?) else age_min end," +
+                    " age_max = case when age_max = ? then (select max(age) from member where team_id = ?) else age_max end" +
+                    " where team_id = ?";
+
+    private static final String REFRESH_TEAM =
+            "insert into team_stat (team_id, member_count, age_sum, age_min, age_max)" +
+                    " select ?, count(*), coalesce(sum(age), 0), min(age), max(age) from member where team_id = ?";
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team) {
+            execute(event.getSession(), INSERT_TEAM, event.getId());
+        } else if (event.getEntity() instanceof Member) {
+            Long teamId = EntityStates.teamId(event.getPersister(), event.getState());
+            if (teamId != null) {
+                addMember(event.getSession(), teamId, EntityStates.getInt(event.getPersister(), event.getState(), "age"));
+            }
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        EventSource session = event.getSession();
+        Long newTeamId = EntityStates.teamId(persister, event.getState());
+        Integer newAge = EntityStates.getInt(persister, event.getState(), "age");
+
+        if (event.getOldState() == null) {
+            // 스냅샷 없이 update 된 경우(detached merge 등) 이전 값을 모르므로 새 팀만 다시 계산
+            if (newTeamId != null) {
+                refreshTeam(session, newTeamId);
+            }
+            return;
+        }
+
+        Long oldTeamId = EntityStates.teamId(persister, event.getOldState());
+        Integer oldAge = EntityStates.getInt(persister, event.getOldState(), "age");
+        if (Objects.equals(oldTeamId, newTeamId) && Objects.equals(oldAge, newAge)) {
+            return;
+        }
+
+        session.getJdbcCoordinator().executeBatch();
+        if (oldTeamId != null) {
+            removeMember(session, oldTeamId, oldAge);
+        }
+        if (newTeamId != null) {
+            addMember(session, newTeamId, newAge);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Team) {
+            execute(event.getSession(), DELETE_TEAM, event.getId());
+        } else if (event.getEntity() instanceof Member) {
+            Long teamId = EntityStates.teamId(event.getPersister(), event.getDeletedState());
+            if (teamId != null) {
+                event.getSession().getJdbcCoordinator().executeBatch();
+                removeMember(event.getSession(), teamId,
+                        EntityStates.getInt(event.getPersister(), event.getDeletedState(), "age"));
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void addMember(EventSource session, Long teamId, int age) {
+        int updated = execute(session, ADD_MEMBER, age, age, age, age, age, teamId);
+        if (updated == 0) {
+            // 기능 도입 전부터 있던 팀이면 row 가 없으므로 한 번 계산해서 만든다.
+            session.getJdbcCoordinator().executeBatch();
+            execute(session, REFRESH_TEAM, teamId, teamId);
+        }
+    }
+
+    private void removeMember(EventSource session, Long teamId, int age) {
+        execute(session, REMOVE_MEMBER, age, age, teamId, age, teamId, teamId);
+    }
+
+    private void refreshTeam(EventSource session, Long teamId) {
+        session.getJdbcCoordinator().executeBatch();
+        execute(session, DELETE_TEAM, teamId);
+        execute(session, REFRESH_TEAM, teamId, teamId);
+    }
+
+    private int execute(EventSource session, String sql, Object... params) {
+        int[] updated = new int[1];
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                updated[0] = ps.executeUpdate();
+            }
+        });
+        return updated[0];
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.importer;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class ImportResult {
+
+    private final long rows;
+    private final int batches;
+    private final int createdTeams;
+    private final long elapsedMillis;
+    private final double rowsPerSecond;
+
+    public ImportResult(long rows, int batches, int createdTeams, long elapsedNanos) {
+        this.rows = rows;
+        this.batches = batches;
+        this.createdTeams = createdTeams;
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.rowsPerSecond = elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+}
@@ -0,0 +1,237 @@
+package study.querydsl.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.event.MemberBulkUpdatedEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 회원 파일(CSV / NDJSON)을 username 기준으로 upsert 한다.
+ * <pre>
+ * csv    : username,age,teamName  (첫 줄은 헤더. 따옴표로 감싼 필드, 값 안의 쉼표는 지원하지 않고 거부한다)
+ * ndjson : {"username":"member1","age":10,"teamName":"teamA"}
+ * </pre>
+ * batch-size 건씩 모아 H2 MERGE 를 JDBC 배치로 실행하고 배치마다 커밋한다. 같은 파일을 다시 넣어도 결과는 같다.
+ * merge 키는 member.username 유니크 제약(uk_member_username)에 기댄다. 같은 새 username 을 동시에 넣는
+ * 다른 import 가 있으면 한쪽 배치가 DuplicateKeyException 으로 롤백된다. (중복 회원이 생기지 않는다)
+ * 엔티티 이벤트를 거치지 않으므로 끝나면 {@link MemberBulkUpdatedEvent} 로 파생 데이터를 맞춘다.
+ * 중간에 실패해도 이미 커밋된 배치만큼은 이벤트를 보내고 예외를 다시 던진다.
+ */
+@Component
+public class MemberImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(MemberImporter.class);
+
+    private static final String MERGE_MEMBER =
+            "merge into member m using (select cast(? as bigint) as member_id, cast(? as varchar(255)) as username," +
+                    " cast(? as int) as age, cast(? as bigint) as team_id) s" +
+                    " on m.username = s.username" +
+                    " when matched then update set age = s.age, team_id = s.team_id, version = version + 1" +
+                    " when not matched then insert (member_id, username, age, team_id, version)" +
+                    " values (s.member_id, s.username, s.age, s.team_id, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final String idOptimizer;
+    private final int idIncrementSize;
+
+    public MemberImporter(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher,
+                          ObjectMapper objectMapper,
+                          @Value("${member.import.batch-size:1000}") int batchSize,
+                          @Value("${spring.jpa.properties.querydsl.id.optimizer:pooled-lo}") String idOptimizer,
+                          @Value("${spring.jpa.properties.querydsl.id.increment-size:50}") int idIncrementSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.idOptimizer = idOptimizer;
+        this.idIncrementSize = idIncrementSize;
+    }
+
+    public ImportResult importFile(Path path) throws IOException {
+        boolean csv = path.getFileName().toString().toLowerCase().endsWith(".csv");
+        long start = System.nanoTime();
+
+        SequenceIdAllocator memberIds = new SequenceIdAllocator(jdbcTemplate, "member_seq", idOptimizer, idIncrementSize);
+        TeamIdCache teamIds = new TeamIdCache(
+                new SequenceIdAllocator(jdbcTemplate, "team_seq", idOptimizer, idIncrementSize));
+
+        long rows = 0;
+        int batches = 0;
+        List<ImportRow> staged = new ArrayList<>(batchSize);
+        try {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                boolean header = csv;
+                while ((line = reader.readLine()) != null) {
+                    if (header) {
+                        header = false;
+                        continue;
+                    }
+                    if (!StringUtils.hasText(line)) {
+                        continue;
+                    }
+                    staged.add(csv ? parseCsv(line) : parseJson(line));
+                    if (staged.size() == batchSize) {
+                        rows += flush(staged, memberIds, teamIds);
+                        batches++;
+                    }
+                }
+            }
+            if (!staged.isEmpty()) {
+                rows += flush(staged, memberIds, teamIds);
+                batches++;
+            }
+        } catch (RuntimeException | IOException e) {
+            // 앞 배치는 이미 커밋됐으므로 그만큼은 파생 데이터에 반영한다.
+            if (rows > 0) {
+                try {
+                    publishImported(rows);
+                } catch (RuntimeException publishFailure) {
+                    e.addSuppressed(publishFailure);
+                }
+            }
+            throw e;
+        }
+        publishImported(rows);
+
+        ImportResult result = new ImportResult(rows, batches, teamIds.createdTeams, System.nanoTime() - start);
+        log.info("member import {}: {} rows, {} batches, {} ms, {} rows/s",
+                path.getFileName(), result.getRows(), result.getBatches(), result.getElapsedMillis(),
+                (long) result.getRowsPerSecond());
+        return result;
+    }
+
+    private void publishImported(long rows) {
+        transactionTemplate.executeWithoutResult(status ->
+                eventPublisher.publishEvent(new MemberBulkUpdatedEvent("import", rows)));
+    }
+
+    private int flush(List<ImportRow> staged, SequenceIdAllocator memberIds, TeamIdCache teamIds) {
+        int size = staged.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> args = new ArrayList<>(size);
+            for (ImportRow row : staged) {
+                // 새 회원일 때만 쓰이는 id. 기존 회원이면 버려진다.
+                args.add(new Object[]{memberIds.nextId(), row.username, row.age, teamIds.resolve(row.teamName)});
+            }
+            jdbcTemplate.batchUpdate(MERGE_MEMBER, args);
+        });
+        staged.clear();
+        return size;
+    }
+
+    // 따옴표를 풀지 않으므로 잘못 나뉜 값이 들어가지 않게 따옴표, 남는 컬럼은 거부한다.
+    private ImportRow parseCsv(String line) {
+        if (line.indexOf('"') >= 0) {
+            throw new IllegalArgumentException("quoted member csv fields are not supported: " + line);
+        }
+        String[] columns = line.split(",", -1);
+        if (columns.length < 2 || columns.length > 3) {
+            throw new IllegalArgumentException("invalid member csv line: " + line);
+        }
+        String teamName = columns.length > 2 ? columns[2].trim() : null;
+        return new ImportRow(columns[0].trim(), Integer.parseInt(columns[1].trim()), teamName);
+    }
+
+    private ImportRow parseJson(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            JsonNode username = node.get("username");
+            JsonNode age = node.get("age");
+            if (username == null || !username.isTextual() || age == null || !age.isIntegralNumber() || !age.canConvertToInt()) {
+                throw new IllegalArgumentException("invalid member json line: " + line);
+            }
+            JsonNode teamName = node.get("teamName");
+            return new ImportRow(username.asText(), age.asInt(),
+                    teamName == null || teamName.isNull() ? null : teamName.asText());
+        } catch (IOException e) {
+            throw new UncheckedIOException("invalid member json line: " + line, e);
+        }
+    }
+
+    private static class ImportRow {
+        private final String username;
+        private final int age;
+        private final String teamName;
+
+        ImportRow(String username, int age, String teamName) {
+            this.username = username;
+            this.age = age;
+            this.teamName = teamName;
+        }
+    }
+
+    /**
+     * 팀 이름 -> id. 처음 한 번 team 테이블을 읽고, 없는 팀은 만들어서 채운다.
+     * 배치 트랜잭션이 롤백되면 그 안에서 만든 팀은 캐시에서 뺀다. (없는 id 로 회원을 넣지 않도록)
+     */
+    private class TeamIdCache {
+        private final SequenceIdAllocator teamIdAllocator;
+        private final List<String> uncommitted = new ArrayList<>();
+        private Map<String, Long> ids;
+        private int createdTeams;
+
+        TeamIdCache(SequenceIdAllocator teamIdAllocator) {
+            this.teamIdAllocator = teamIdAllocator;
+        }
+
+        Long resolve(String teamName) {
+            if (!StringUtils.hasText(teamName)) {
+                return null;
+            }
+            if (ids == null) {
+                ids = new HashMap<>();
+                jdbcTemplate.query("select id, name from team", rs -> {
+                    ids.putIfAbsent(rs.getString("name"), rs.getLong("id"));
+                });
+            }
+            return ids.computeIfAbsent(teamName, name -> {
+                long id = teamIdAllocator.nextId();
+                jdbcTemplate.update("insert into team (id, name) values (?, ?)", id, name);
+                if (uncommitted.isEmpty()) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            if (status != STATUS_COMMITTED) {
+                                uncommitted.forEach(ids::remove);
+                                createdTeams -= uncommitted.size();
+                            }
+                            uncommitted.clear();
+                        }
+                    });
+                }
+                uncommitted.add(name);
+                createdTeams++;
+                return id;
+            });
+        }
+    }
+}
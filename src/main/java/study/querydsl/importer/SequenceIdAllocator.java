@@ -0,0 +1,35 @@
+package study.querydsl.importer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * JDBC 로 insert 할 때 Hibernate(pooled-lo) 와 겹치지 않게 시퀀스에서 id 블록을 받아 쓴다.
+ * 시퀀스 값 v 하나로 [v, v + incrementSize) 를 쓰는 pooled-lo 와 같은 규칙이다.
+ */
+class SequenceIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sequenceName;
+    private final int incrementSize;
+
+    private long next;
+    private long end;
+
+    SequenceIdAllocator(JdbcTemplate jdbcTemplate, String sequenceName, String optimizer, int incrementSize) {
+        if (!"pooled-lo".equals(optimizer) && !"none".equals(optimizer)) {
+            throw new IllegalStateException("unsupported id optimizer for jdbc import: " + optimizer);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceName = sequenceName;
+        this.incrementSize = "none".equals(optimizer) ? 1 : incrementSize;
+    }
+
+    long nextId() {
+        if (next == end) {
+            Long value = jdbcTemplate.queryForObject("select next value for " + sequenceName, Long.class);
+            next = value;
+            end = value + incrementSize;
+        }
+        return next++;
+    }
+}
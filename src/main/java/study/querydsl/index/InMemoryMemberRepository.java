@@ -0,0 +1,42 @@
+package study.querydsl.index;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepositoryCustom;
+
+import java.util.List;
+
+/**
+ * {@link MemberSearchIndex} 로 조회하는 MemberRepositoryCustom. (member.search.mode=memory)
+ * 커밋된 데이터만 보이므로 같은 트랜잭션에서 방금 저장한 회원은 조회되지 않는다.
+ */
+public class InMemoryMemberRepository implements MemberRepositoryCustom {
+
+    private final MemberSearchIndex memberSearchIndex;
+
+    public InMemoryMemberRepository(MemberSearchIndex memberSearchIndex) {
+        this.memberSearchIndex = memberSearchIndex;
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition memberSearchCondition) {
+        return memberSearchIndex.search(memberSearchCondition);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition memberSearchCondition, Pageable pageable) {
+        return memberSearchIndex.searchPage(memberSearchCondition, pageable);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition memberSearchCondition, Pageable pageable) {
+        return searchPageSimple(memberSearchCondition, pageable);
+    }
+
+    @Override
+    public List<MemberTeamDto> searchView(MemberSearchCondition memberSearchCondition) {
+        return search(memberSearchCondition);
+    }
+}
@@ -0,0 +1,237 @@
+package study.querydsl.index;
+
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * member_id 기준 압축 비트맵 인덱스. usernameEq/teamNameEq/ageGoe/ageLoe 조건을 비트맵 교집합으로 평가한다.
+ * <ul>
+ *     <li>team: 팀 id 별 비트맵</li>
+ *     <li>age: 나이 값 하나가 버킷 하나 (범위는 버킷 합집합)</li>
+ *     <li>username: hashCode 별 비트맵, 충돌은 실제 이름으로 거른다</li>
+ * </ul>
+ * member_id 는 long 그대로 쓴다. (64bit 비트맵이라 시퀀스가 int 범위를 넘어도 된다)
+ */
+public class MemberBitmapIndex implements MemberIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Roaring64NavigableMap all = new Roaring64NavigableMap();
+    private final Map<Long, Roaring64NavigableMap> byTeam = new HashMap<>();
+    private final NavigableMap<Integer, Roaring64NavigableMap> byAge = new TreeMap<>();
+    private final Map<Integer, Roaring64NavigableMap> byUsernameHash = new HashMap<>();
+
+    private final Map<Long, Row> rows = new HashMap<>();
+    private final Map<Long, String> teamNames = new HashMap<>();
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            byTeam.clear();
+            byAge.clear();
+            byUsernameHash.clear();
+            rows.clear();
+            teamNames.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putTeam(Long teamId, String teamName) {
+        lock.writeLock().lock();
+        try {
+            teamNames.put(teamId, teamName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeTeam(Long teamId) {
+        lock.writeLock().lock();
+        try {
+            teamNames.remove(teamId);
+            Roaring64NavigableMap members = byTeam.remove(teamId);
+            if (members != null) {
+                members.forEach((long id) -> rows.get(id).teamId = null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putMember(Long memberId, String username, int age, Long teamId) {
+        long id = memberId;
+        lock.writeLock().lock();
+        try {
+            Row old = rows.get(id);
+            if (old != null) {
+                unlink(id, old);
+            }
+            Row row = new Row(username, age, teamId);
+            rows.put(id, row);
+            all.addLong(id);
+            byAge.computeIfAbsent(age, key -> new Roaring64NavigableMap()).addLong(id);
+            byUsernameHash.computeIfAbsent(hash(username), key -> new Roaring64NavigableMap()).addLong(id);
+            if (teamId != null) {
+                byTeam.computeIfAbsent(teamId, key -> new Roaring64NavigableMap()).addLong(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeMember(Long memberId) {
+        lock.writeLock().lock();
+        try {
+            Row old = rows.remove(memberId);
+            if (old != null) {
+                unlink(memberId, old);
+                all.removeLong(memberId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void retainMembers(Set<Long> memberIds) {
+        lock.writeLock().lock();
+        try {
+            List<Long> removed = new ArrayList<>();
+            for (Long id : rows.keySet()) {
+                if (!memberIds.contains(id)) {
+                    removed.add(id);
+                }
+            }
+            removed.forEach(this::removeMember);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 조건에 맞는 member_id 집합. 반환된 비트맵은 복사본이다.
+     */
+    public Roaring64NavigableMap match(MemberSearchCondition condition) {
+        lock.readLock().lock();
+        try {
+            List<Roaring64NavigableMap> filters = new ArrayList<>();
+            if (StringUtils.hasText(condition.getUsername())) {
+                filters.add(usernameEq(condition.getUsername()));
+            }
+            if (StringUtils.hasText(condition.getTeamName())) {
+                filters.add(teamNameEq(condition.getTeamName()));
+            }
+            if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+                filters.add(ageBetween(condition.getAgeGoe(), condition.getAgeLoe()));
+            }
+            if (filters.isEmpty()) {
+                return copy(all);
+            }
+            // 작은 비트맵부터 교집합. 조건별 비트맵은 새로 만든 것이라 그대로 줄여 쓴다.
+            filters.sort((a, b) -> Long.compare(a.getLongCardinality(), b.getLongCardinality()));
+            Roaring64NavigableMap result = filters.get(0);
+            for (int i = 1; i < filters.size() && result.getLongCardinality() > 0; i++) {
+                result.and(filters.get(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(MemberSearchCondition condition) {
+        return match(condition).getLongCardinality();
+    }
+
+    private Roaring64NavigableMap usernameEq(String username) {
+        Roaring64NavigableMap sameHash = byUsernameHash.get(hash(username));
+        if (sameHash == null) {
+            return new Roaring64NavigableMap();
+        }
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        sameHash.forEach((long id) -> {
+            if (username.equals(rows.get(id).username)) {
+                result.addLong(id);
+            }
+        });
+        return result;
+    }
+
+    private Roaring64NavigableMap teamNameEq(String teamName) {
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        for (Map.Entry<Long, String> team : teamNames.entrySet()) {
+            if (teamName.equals(team.getValue()) && byTeam.containsKey(team.getKey())) {
+                result.or(byTeam.get(team.getKey()));
+            }
+        }
+        return result;
+    }
+
+    private Roaring64NavigableMap ageBetween(Integer ageGoe, Integer ageLoe) {
+        int from = ageGoe != null ? ageGoe : Integer.MIN_VALUE;
+        int to = ageLoe != null ? ageLoe : Integer.MAX_VALUE;
+        Roaring64NavigableMap result = new Roaring64NavigableMap();
+        if (from <= to) {
+            byAge.subMap(from, true, to, true).values().forEach(result::or);
+        }
+        return result;
+    }
+
+    private void unlink(long id, Row row) {
+        remove(byAge, row.age, id);
+        remove(byUsernameHash, hash(row.username), id);
+        if (row.teamId != null) {
+            remove(byTeam, row.teamId, id);
+        }
+    }
+
+    private static <K> void remove(Map<K, Roaring64NavigableMap> bitmaps, K key, long id) {
+        Roaring64NavigableMap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.removeLong(id);
+            if (bitmap.getLongCardinality() == 0) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static Roaring64NavigableMap copy(Roaring64NavigableMap bitmap) {
+        Roaring64NavigableMap copy = new Roaring64NavigableMap();
+        copy.or(bitmap);
+        return copy;
+    }
+
+    private static int hash(String username) {
+        return username == null ? 0 : username.hashCode();
+    }
+
+    private static class Row {
+        private final String username;
+        private final int age;
+        private Long teamId;
+
+        Row(String username, int age, Long teamId) {
+            this.username = username;
+            this.age = age;
+            this.teamId = teamId;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.index;
+
+import java.util.Set;
+
+/**
+ * 커밋된 Member/Team 변경을 받는 인메모리 인덱스.
+ * {@link study.querydsl.event.MemberIndexEventListener} 가 커밋 후에 호출하고,
+ * 기동 시에는 {@link MemberIndexLoader} 가 DB 전체를 한 번 적재한다.
+ */
+public interface MemberIndex extends MemberIndexSink {
+
+    void clear();
+
+    void removeTeam(Long teamId);
+
+    void removeMember(Long memberId);
+
+    /**
+     * memberIds 에 없는 회원을 뺀다. (비우지 않고 전체를 다시 맞출 때)
+     */
+    void retainMembers(Set<Long> memberIds);
+}
@@ -0,0 +1,141 @@
+package study.querydsl.index;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
+import study.querydsl.event.MemberBulkUpdatedEvent;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 기동이 끝나면 등록된 {@link MemberIndex} 를 스냅샷이나 DB 로 한 번 채운다. 이후는 커밋 이벤트로 갱신된다.
+ */
+@Component
+public class MemberIndexLoader {
+
+    private static final int READ_CHUNK = 1000;
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final ObjectProvider<MemberIndex> memberIndexes;
+    private final ObjectProvider<MemberSnapshotService> memberSnapshotService;
+
+    public MemberIndexLoader(EntityManager em, ObjectProvider<MemberIndex> memberIndexes,
+                             ObjectProvider<MemberSnapshotService> memberSnapshotService) {
+        this.jpaQueryFactory = new JPAQueryFactory(em);
+        this.memberIndexes = memberIndexes;
+        this.memberSnapshotService = memberSnapshotService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        List<MemberIndex> indexes = memberIndexes.orderedStream().collect(Collectors.toList());
+        if (indexes.isEmpty()) {
+            return;
+        }
+        MemberSnapshotService snapshot = memberSnapshotService.getIfAvailable();
+        if (snapshot != null && snapshot.restore(indexes)) {
+            return;
+        }
+        indexes.forEach(MemberIndex::clear);
+        loadFromDatabase(indexes);
+    }
+
+    /**
+     * 벌크 연산은 커밋 이벤트가 없으므로 커밋 후 DB 에서 다시 읽는다.
+     * 바뀐 회원을 알면 그 회원만, 모르면 전체를 덮어쓰고 없는 회원을 뺀다. 인덱스를 비우지 않으므로 조회는 계속된다.
+     * 방금 커밋한 내용을 읽어야 하므로 replica 로 가지 않게 readOnly 를 붙이지 않는다.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onBulkUpdate(MemberBulkUpdatedEvent event) {
+        List<MemberIndex> indexes = memberIndexes.orderedStream().collect(Collectors.toList());
+        if (indexes.isEmpty() || event.getUpdatedRows() == 0) {
+            return;
+        }
+        if (event.getMemberIds() != null) {
+            readMembers(indexes, event.getMemberIds());
+            return;
+        }
+        Set<Long> memberIds = new HashSet<>();
+        List<MemberIndexSink> sinks = new ArrayList<>(indexes);
+        sinks.add(new MemberIndexSink() {
+            @Override
+            public void putTeam(Long teamId, String teamName) {
+            }
+
+            @Override
+            public void putMember(Long memberId, String username, int age, Long teamId) {
+                memberIds.add(memberId);
+            }
+        });
+        readFromDatabase(sinks);
+        indexes.forEach(index -> index.retainMembers(memberIds));
+    }
+
+    private void readMembers(List<? extends MemberIndexSink> indexes, Collection<Long> memberIds) {
+        List<Long> ids = new ArrayList<>(memberIds);
+        for (int from = 0; from < ids.size(); from += READ_CHUNK) {
+            List<Tuple> members = jpaQueryFactory
+                    .select(QMember.member.id, QMember.member.username, QMember.member.age, QMember.member.team.id)
+                    .from(QMember.member)
+                    .where(QMember.member.id.in(ids.subList(from, Math.min(from + READ_CHUNK, ids.size()))))
+                    .fetch();
+            putMembers(indexes, members);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void loadFromDatabase(MemberIndexSink index) {
+        loadFromDatabase(Collections.singletonList(index));
+    }
+
+    @Transactional(readOnly = true)
+    public void loadFromDatabase(List<? extends MemberIndexSink> indexes) {
+        readFromDatabase(indexes);
+    }
+
+    /**
+     * 호출한 쪽 트랜잭션에서 읽는다. (다른 조회와 같은 커넥션, 같은 시점을 봐야 할 때)
+     */
+    public void readFromDatabase(List<? extends MemberIndexSink> indexes) {
+        List<Tuple> teams = jpaQueryFactory
+                .select(QTeam.team.id, QTeam.team.name)
+                .from(QTeam.team)
+                .fetch();
+        for (Tuple team : teams) {
+            indexes.forEach(index -> index.putTeam(team.get(QTeam.team.id), team.get(QTeam.team.name)));
+        }
+
+        List<Tuple> members = jpaQueryFactory
+                .select(QMember.member.id, QMember.member.username, QMember.member.age, QMember.member.team.id)
+                .from(QMember.member)
+                .fetch();
+        putMembers(indexes, members);
+    }
+
+    private static void putMembers(List<? extends MemberIndexSink> indexes, List<Tuple> members) {
+        for (Tuple member : members) {
+            indexes.forEach(index -> index.putMember(
+                    member.get(QMember.member.id),
+                    member.get(QMember.member.username),
+                    member.get(QMember.member.age),
+                    member.get(QMember.member.team.id)));
+        }
+    }
+}
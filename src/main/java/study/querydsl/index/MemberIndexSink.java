@@ -0,0 +1,11 @@
+package study.querydsl.index;
+
+/**
+ * Team/Member 를 받기만 하는 쪽. DB 나 스냅샷에서 한 번에 채울 때 쓴다.
+ */
+public interface MemberIndexSink {
+
+    void putTeam(Long teamId, String teamName);
+
+    void putMember(Long memberId, String username, int age, Long teamId);
+}
@@ -0,0 +1,363 @@
+package study.querydsl.index;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * MemberSearchCondition 을 메모리에서 처리하는 인덱스.
+ * <ul>
+ *     <li>username: 이름별 slot 비트맵 (해시)</li>
+ *     <li>age: 나이별 slot 비트맵을 TreeMap 으로 정렬 (goe/loe 범위 스캔)</li>
+ *     <li>teamName: 팀별 slot 비트맵</li>
+ * </ul>
+ * 회원은 slot 번호로 관리하고 삭제된 slot 은 재사용한다.
+ */
+public class MemberSearchIndex implements MemberIndex {
+
+    private static final long NO_TEAM = -1L;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // slot 별 컬럼
+    private long[] ids = new long[1024];
+    private String[] usernames = new String[1024];
+    private int[] ages = new int[1024];
+    private long[] teamIds = new long[1024];
+    private final BitSet live = new BitSet();
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Map<String, BitSet> usernameIndex = new HashMap<>();
+    private final Map<Long, BitSet> teamBitmaps = new HashMap<>();
+    private final Map<Long, String> teamNames = new HashMap<>();
+    private final Map<String, Set<Long>> teamIdsByName = new HashMap<>();
+
+    // age -> slot 비트맵. 추가/삭제에 배열 이동이 없어 N 건 적재가 O(N log 나이 종류 수) 다.
+    private final NavigableMap<Integer, BitSet> slotsByAge = new TreeMap<>();
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            live.clear();
+            slotCount = 0;
+            freeCount = 0;
+            slotsByAge.clear();
+            slotById.clear();
+            usernameIndex.clear();
+            teamBitmaps.clear();
+            teamNames.clear();
+            teamIdsByName.clear();
+            Arrays.fill(usernames, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putTeam(Long teamId, String teamName) {
+        lock.writeLock().lock();
+        try {
+            String oldName = teamNames.put(teamId, teamName);
+            if (oldName != null) {
+                Set<Long> sameName = teamIdsByName.get(oldName);
+                sameName.remove(teamId);
+                if (sameName.isEmpty()) {
+                    teamIdsByName.remove(oldName);
+                }
+            }
+            teamIdsByName.computeIfAbsent(teamName, name -> new HashSet<>()).add(teamId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeTeam(Long teamId) {
+        lock.writeLock().lock();
+        try {
+            String name = teamNames.remove(teamId);
+            if (name != null) {
+                Set<Long> sameName = teamIdsByName.get(name);
+                sameName.remove(teamId);
+                if (sameName.isEmpty()) {
+                    teamIdsByName.remove(name);
+                }
+            }
+            BitSet members = teamBitmaps.remove(teamId);
+            if (members != null) {
+                for (int slot = members.nextSetBit(0); slot >= 0; slot = members.nextSetBit(slot + 1)) {
+                    teamIds[slot] = NO_TEAM;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void putMember(Long memberId, String username, int age, Long teamId) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotById.get(memberId);
+            if (existing != null) {
+                unlink(existing);
+            }
+            int slot = existing != null ? existing : allocateSlot();
+            ids[slot] = memberId;
+            usernames[slot] = username;
+            ages[slot] = age;
+            teamIds[slot] = teamId != null ? teamId : NO_TEAM;
+            live.set(slot);
+            slotById.put(memberId, slot);
+            link(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeMember(Long memberId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(memberId);
+            if (slot == null) {
+                return;
+            }
+            unlink(slot);
+            live.clear(slot);
+            usernames[slot] = null;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void retainMembers(Set<Long> memberIds) {
+        lock.writeLock().lock();
+        try {
+            List<Long> removed = new ArrayList<>();
+            for (Long memberId : slotById.keySet()) {
+                if (!memberIds.contains(memberId)) {
+                    removed.add(memberId);
+                }
+            }
+            removed.forEach(this::removeMember);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 조건에 맞는 회원을 member id 순으로 반환한다.
+     */
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return search(condition, 0, Integer.MAX_VALUE);
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return toDtos(matchingSlots(condition), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 내용과 total 을 같은 읽기 잠금 안에서 구한다. (사이에 바뀐 회원으로 페이지와 total 이 어긋나지 않는다)
+     */
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            int[] slots = matchingSlots(condition);
+            return new PageImpl<>(toDtos(slots, pageable.getOffset(), pageable.getPageSize()), pageable, slots.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long count(MemberSearchCondition condition) {
+        lock.readLock().lock();
+        try {
+            return matchingSlots(condition).length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<MemberTeamDto> toDtos(int[] slots, long offset, int limit) {
+        List<MemberTeamDto> result = new ArrayList<>((int) Math.min(limit, slots.length));
+        for (long i = offset; i < slots.length && result.size() < limit; i++) {
+            int slot = slots[(int) i];
+            long teamId = teamIds[slot];
+            result.add(new MemberTeamDto(ids[slot], usernames[slot], ages[slot],
+                    teamId == NO_TEAM ? null : teamId,
+                    teamId == NO_TEAM ? null : teamNames.get(teamId)));
+        }
+        return result;
+    }
+
+    private int[] matchingSlots(MemberSearchCondition condition) {
+        String username = StringUtils.hasText(condition.getUsername()) ? condition.getUsername() : null;
+        String teamName = StringUtils.hasText(condition.getTeamName()) ? condition.getTeamName() : null;
+        Integer ageGoe = condition.getAgeGoe();
+        Integer ageLoe = condition.getAgeLoe();
+
+        // 가장 좁은 인덱스로 후보를 뽑고 나머지 조건은 컬럼 값으로 거른다.
+        int[] candidates;
+        if (username != null) {
+            candidates = toArray(usernameIndex.getOrDefault(username, new BitSet()));
+        } else if (teamName != null) {
+            candidates = toArray(teamBitmap(teamName));
+        } else if (ageGoe != null || ageLoe != null) {
+            int from = ageGoe == null ? Integer.MIN_VALUE : ageGoe;
+            int to = ageLoe == null ? Integer.MAX_VALUE : ageLoe;
+            BitSet inRange = new BitSet();
+            if (from <= to) {
+                slotsByAge.subMap(from, true, to, true).values().forEach(inRange::or);
+            }
+            candidates = toArray(inRange);
+        } else {
+            candidates = toArray(live);
+        }
+
+        BitSet teamBitmap = teamName != null && username != null ? teamBitmap(teamName) : null;
+        int[] matched = new int[candidates.length];
+        int count = 0;
+        for (int slot : candidates) {
+            if (username != null && !username.equals(usernames[slot])) {
+                continue;
+            }
+            if (teamBitmap != null && !teamBitmap.get(slot)) {
+                continue;
+            }
+            if (ageGoe != null && ages[slot] < ageGoe) {
+                continue;
+            }
+            if (ageLoe != null && ages[slot] > ageLoe) {
+                continue;
+            }
+            matched[count++] = slot;
+        }
+
+        return sortById(Arrays.copyOf(matched, count));
+    }
+
+    private int[] sortById(int[] slots) {
+        // id 가 int 범위면 (id, slot) 을 long 하나로 묶어 박싱 없이 정렬한다.
+        long[] keys = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            long id = ids[slots[i]];
+            if (id > Integer.MAX_VALUE) {
+                return Arrays.stream(slots).boxed()
+                        .sorted(Comparator.comparingLong(slot -> ids[slot]))
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+            }
+            keys[i] = id << 32 | slots[i];
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            slots[i] = (int) keys[i];
+        }
+        return slots;
+    }
+
+    private BitSet teamBitmap(String teamName) {
+        BitSet result = new BitSet();
+        for (Long teamId : teamIdsByName.getOrDefault(teamName, new HashSet<>())) {
+            BitSet members = teamBitmaps.get(teamId);
+            if (members != null) {
+                result.or(members);
+            }
+        }
+        return result;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            usernames = Arrays.copyOf(usernames, capacity);
+            ages = Arrays.copyOf(ages, capacity);
+            teamIds = Arrays.copyOf(teamIds, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void link(int slot) {
+        usernameIndex.computeIfAbsent(usernames[slot], name -> new BitSet()).set(slot);
+
+        if (teamIds[slot] != NO_TEAM) {
+            teamBitmaps.computeIfAbsent(teamIds[slot], teamId -> new BitSet()).set(slot);
+        }
+
+        slotsByAge.computeIfAbsent(ages[slot], age -> new BitSet()).set(slot);
+    }
+
+    private void unlink(int slot) {
+        BitSet sameName = usernameIndex.get(usernames[slot]);
+        if (sameName != null) {
+            sameName.clear(slot);
+            if (sameName.isEmpty()) {
+                usernameIndex.remove(usernames[slot]);
+            }
+        }
+
+        if (teamIds[slot] != NO_TEAM) {
+            BitSet members = teamBitmaps.get(teamIds[slot]);
+            if (members != null) {
+                members.clear(slot);
+            }
+        }
+
+        BitSet sameAge = slotsByAge.get(ages[slot]);
+        if (sameAge != null) {
+            sameAge.clear(slot);
+            if (sameAge.isEmpty()) {
+                slotsByAge.remove(ages[slot]);
+            }
+        }
+    }
+
+    private static int[] toArray(BitSet bitSet) {
+        return bitSet.stream().toArray();
+    }
+}
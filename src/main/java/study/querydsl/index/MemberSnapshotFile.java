@@ -0,0 +1,288 @@
+package study.querydsl.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Member/Team 스냅샷 파일 포맷. 고정 길이 컬럼 + 문자열 힙으로 구성되고 mmap 으로 읽는다.
+ * <pre>
+ * header  : magic(int) version(int) createdAt(long) teamCount(int) memberCount(int) maxMemberId(long) heapSize(int) pad(int)
+ *           memberChecksum(long) teamChecksum(long)
+ * team    : id(long)[t] nameOffset(int)[t] nameLength(int)[t]
+ * member  : id(long)[m] teamId(long)[m] age(int)[m] usernameOffset(int)[m] usernameLength(int)[m]
+ * heap    : UTF-8 bytes
+ * </pre>
+ * 팀이 없으면 teamId 는 -1, 문자열이 null 이면 length 는 -1 이다.
+ * memberChecksum((id, version) 체크섬), teamChecksum 은 쓰기 직전 DB 의 변경 워터마크로, 복원할 때 DB 와 비교한다.
+ */
+public final class MemberSnapshotFile {
+
+    private static final int MAGIC = 0x4D534E50; // MSNP
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 56;
+    private static final long NO_TEAM = -1L;
+
+    private MemberSnapshotFile() {
+    }
+
+    /**
+     * source 가 {@link MemberIndexSink} 로 넘겨주는 데이터를 path 에 쓴다. 임시 파일에 쓰고 교체한다.
+     * 워터마크는 source 를 읽기 전에 구한 값이어야 한다. (그 사이 변경이 있으면 복원 시 불일치로 걸러진다)
+     */
+    public static Header write(Path path, long memberChecksum, long teamChecksum, Consumer<MemberIndexSink> source)
+            throws IOException {
+        Columns columns = new Columns();
+        source.accept(columns);
+
+        byte[][] teamNames = encode(columns.teamNames, columns.teamCount);
+        byte[][] usernames = encode(columns.usernames, columns.memberCount);
+        int heapSize = heapSize(teamNames) + heapSize(usernames);
+        long size = HEADER_SIZE
+                + (long) columns.teamCount * (8 + 4 + 4)
+                + (long) columns.memberCount * (8 + 8 + 4 + 4 + 4)
+                + heapSize;
+
+        Header header = new Header(System.currentTimeMillis(), columns.teamCount, columns.memberCount, columns.maxMemberId,
+                memberChecksum, teamChecksum);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(header.createdAt)
+                    .putInt(header.teamCount).putInt(header.memberCount).putLong(header.maxMemberId)
+                    .putInt(heapSize).putInt(0)
+                    .putLong(header.memberChecksum).putLong(header.teamChecksum);
+
+            for (int i = 0; i < columns.teamCount; i++) {
+                buffer.putLong(columns.teamIds[i]);
+            }
+            int heapOffset = putStringColumns(buffer, teamNames, 0);
+            for (int i = 0; i < columns.memberCount; i++) {
+                buffer.putLong(columns.memberIds[i]);
+            }
+            for (int i = 0; i < columns.memberCount; i++) {
+                buffer.putLong(columns.memberTeamIds[i]);
+            }
+            for (int i = 0; i < columns.memberCount; i++) {
+                buffer.putInt(columns.ages[i]);
+            }
+            putStringColumns(buffer, usernames, heapOffset);
+
+            for (byte[] bytes : teamNames) {
+                if (bytes != null) {
+                    buffer.put(bytes);
+                }
+            }
+            for (byte[] bytes : usernames) {
+                if (bytes != null) {
+                    buffer.put(bytes);
+                }
+            }
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return header;
+    }
+
+    public static Header readHeader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return header(channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), HEADER_SIZE)));
+        }
+    }
+
+    /**
+     * 스냅샷을 indexes 에 채운다. indexes 는 비어있다고 가정한다.
+     */
+    public static Header read(Path path, List<? extends MemberIndexSink> indexes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Header header = header(buffer);
+            int teams = header.teamCount;
+            int members = header.memberCount;
+
+            int teamIds = HEADER_SIZE;
+            int teamNameOffsets = teamIds + teams * 8;
+            int teamNameLengths = teamNameOffsets + teams * 4;
+            int memberIds = teamNameLengths + teams * 4;
+            int memberTeamIds = memberIds + members * 8;
+            int ages = memberTeamIds + members * 8;
+            int usernameOffsets = ages + members * 4;
+            int usernameLengths = usernameOffsets + members * 4;
+            int heap = usernameLengths + members * 4;
+
+            StringHeap strings = new StringHeap(buffer, heap);
+            for (int i = 0; i < teams; i++) {
+                Long teamId = buffer.getLong(teamIds + i * 8);
+                String name = strings.get(buffer.getInt(teamNameOffsets + i * 4), buffer.getInt(teamNameLengths + i * 4));
+                indexes.forEach(index -> index.putTeam(teamId, name));
+            }
+            for (int i = 0; i < members; i++) {
+                Long memberId = buffer.getLong(memberIds + i * 8);
+                long teamId = buffer.getLong(memberTeamIds + i * 8);
+                int age = buffer.getInt(ages + i * 4);
+                String username = strings.get(buffer.getInt(usernameOffsets + i * 4), buffer.getInt(usernameLengths + i * 4));
+                Long memberTeamId = teamId == NO_TEAM ? null : teamId;
+                indexes.forEach(index -> index.putMember(memberId, username, age, memberTeamId));
+            }
+            return header;
+        }
+    }
+
+    private static Header header(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a member snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported member snapshot version: " + buffer.getInt(4));
+        }
+        return new Header(buffer.getLong(8), buffer.getInt(16), buffer.getInt(20), buffer.getLong(24),
+                buffer.getLong(40), buffer.getLong(48));
+    }
+
+    private static int putStringColumns(ByteBuffer buffer, byte[][] strings, int heapOffset) {
+        int offset = heapOffset;
+        for (byte[] bytes : strings) {
+            buffer.putInt(offset);
+            offset += bytes == null ? 0 : bytes.length;
+        }
+        for (byte[] bytes : strings) {
+            buffer.putInt(bytes == null ? -1 : bytes.length);
+        }
+        return offset;
+    }
+
+    private static byte[][] encode(String[] strings, int count) {
+        byte[][] encoded = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            encoded[i] = strings[i] == null ? null : strings[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    private static int heapSize(byte[][] strings) {
+        int size = 0;
+        for (byte[] bytes : strings) {
+            size += bytes == null ? 0 : bytes.length;
+        }
+        return size;
+    }
+
+    public static class Header {
+        private final long createdAt;
+        private final int teamCount;
+        private final int memberCount;
+        private final long maxMemberId;
+        private final long memberChecksum;
+        private final long teamChecksum;
+
+        Header(long createdAt, int teamCount, int memberCount, long maxMemberId, long memberChecksum, long teamChecksum) {
+            this.createdAt = createdAt;
+            this.teamCount = teamCount;
+            this.memberCount = memberCount;
+            this.maxMemberId = maxMemberId;
+            this.memberChecksum = memberChecksum;
+            this.teamChecksum = teamChecksum;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public int getTeamCount() {
+            return teamCount;
+        }
+
+        public int getMemberCount() {
+            return memberCount;
+        }
+
+        public long getMaxMemberId() {
+            return maxMemberId;
+        }
+
+        public long getMemberChecksum() {
+            return memberChecksum;
+        }
+
+        public long getTeamChecksum() {
+            return teamChecksum;
+        }
+    }
+
+    private static class StringHeap {
+        private final ByteBuffer heap;
+        private final int base;
+        private byte[] scratch = new byte[64];
+
+        StringHeap(ByteBuffer buffer, int base) {
+            this.heap = buffer.duplicate();
+            this.base = base;
+        }
+
+        String get(int offset, int length) {
+            if (length < 0) {
+                return null;
+            }
+            if (length > scratch.length) {
+                scratch = new byte[length];
+            }
+            heap.position(base + offset);
+            heap.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 쓰기 전에 데이터를 컬럼 배열로 모은다.
+     */
+    private static class Columns implements MemberIndexSink {
+        private long[] teamIds = new long[16];
+        private String[] teamNames = new String[16];
+        private int teamCount;
+
+        private long[] memberIds = new long[1024];
+        private long[] memberTeamIds = new long[1024];
+        private int[] ages = new int[1024];
+        private String[] usernames = new String[1024];
+        private int memberCount;
+        private long maxMemberId;
+
+        @Override
+        public void putTeam(Long teamId, String teamName) {
+            if (teamCount == teamIds.length) {
+                teamIds = Arrays.copyOf(teamIds, teamCount * 2);
+                teamNames = Arrays.copyOf(teamNames, teamCount * 2);
+            }
+            teamIds[teamCount] = teamId;
+            teamNames[teamCount] = teamName;
+            teamCount++;
+        }
+
+        @Override
+        public void putMember(Long memberId, String username, int age, Long teamId) {
+            if (memberCount == memberIds.length) {
+                int capacity = memberCount * 2;
+                memberIds = Arrays.copyOf(memberIds, capacity);
+                memberTeamIds = Arrays.copyOf(memberTeamIds, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                usernames = Arrays.copyOf(usernames, capacity);
+            }
+            memberIds[memberCount] = memberId;
+            memberTeamIds[memberCount] = teamId == null ? NO_TEAM : teamId;
+            ages[memberCount] = age;
+            usernames[memberCount] = username;
+            memberCount++;
+            maxMemberId = Math.max(maxMemberId, memberId);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package study.querydsl.index;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 주기적으로 Member/Team 스냅샷을 쓰고, 기동 시 DB 대신 스냅샷으로 인덱스를 채운다. (member.snapshot.enabled=true)
+ * 스냅샷 이후 DB 가 바뀌었으면 쓰지 않는다. 회원 수, 최대 id, 회원 (id, version) 체크섬(수정마다 version 증가),
+ * 팀 (id, name) 체크섬이 모두 같을 때만 복원하고 하나라도 다르면 DB 에서 다시 채운다.
+ * 쓸 때는 워터마크와 데이터를 한 쓰기 트랜잭션(primary)에서 읽는다. readOnly 면 replica 로 가서 둘이 어긋날 수 있다.
+ */
+@Component
+@ConditionalOnProperty(name = "member.snapshot.enabled", havingValue = "true")
+public class MemberSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(MemberSnapshotService.class);
+
+    private final Path path;
+    private final MemberIndexLoader memberIndexLoader;
+    private final JPAQueryFactory jpaQueryFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    public MemberSnapshotService(@Value("${member.snapshot.path:member.snapshot}") String path,
+                                 MemberIndexLoader memberIndexLoader, EntityManager em,
+                                 PlatformTransactionManager transactionManager) {
+        this.path = Paths.get(path);
+        this.memberIndexLoader = memberIndexLoader;
+        this.jpaQueryFactory = new JPAQueryFactory(em);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${member.snapshot.interval-ms:300000}",
+            fixedDelayString = "${member.snapshot.interval-ms:300000}")
+    public void write() {
+        try {
+            long start = System.nanoTime();
+            MemberSnapshotFile.Header header = transactionTemplate.execute(status -> {
+                // 워터마크를 먼저 읽는다. 읽는 도중 바뀐 내용이 있으면 다음 복원 때 불일치로 버려진다.
+                long memberChecksum = memberChecksum();
+                long teamChecksum = teamChecksum();
+                try {
+                    return MemberSnapshotFile.write(path, memberChecksum, teamChecksum,
+                            sink -> memberIndexLoader.readFromDatabase(Collections.singletonList(sink)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("member snapshot written: {} members, {} ms", header.getMemberCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (UncheckedIOException e) {
+            log.warn("member snapshot write failed: {}", path, e.getCause());
+        }
+    }
+
+    /**
+     * 스냅샷이 DB 와 일치하면 indexes 를 스냅샷으로 채우고 true 를 반환한다.
+     */
+    public boolean restore(List<MemberIndex> indexes) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+        try {
+            MemberSnapshotFile.Header header = MemberSnapshotFile.readHeader(path);
+            Tuple current = jpaQueryFactory
+                    .select(QMember.member.count(), QMember.member.id.max())
+                    .from(QMember.member)
+                    .fetchOne();
+            Long maxMemberId = current.get(QMember.member.id.max());
+            if (current.get(QMember.member.count()) != header.getMemberCount()
+                    || (maxMemberId == null ? 0 : maxMemberId) != header.getMaxMemberId()
+                    || memberChecksum() != header.getMemberChecksum()
+                    || teamChecksum() != header.getTeamChecksum()) {
+                log.info("member snapshot is stale, loading from database");
+                return false;
+            }
+
+            long start = System.nanoTime();
+            indexes.forEach(MemberIndex::clear);
+            MemberSnapshotFile.read(path, indexes);
+            log.info("member snapshot restored: {} members, {} ms", header.getMemberCount(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException e) {
+            log.warn("member snapshot restore failed: {}", path, e);
+            return false;
+        }
+    }
+
+    private long memberChecksum() {
+        Long sum = jpaQueryFactory
+                .select(QMember.member.version.sum())
+                .from(QMember.member)
+                .fetchOne();
+        return sum == null ? 0 : sum;
+    }
+
+    // 팀은 version 이 없고 수가 적으므로 (id, name) 전체로 구한다.
+    private long teamChecksum() {
+        CRC32 crc = new CRC32();
+        List<Tuple> teams = jpaQueryFactory
+                .select(QTeam.team.id, QTeam.team.name)
+                .from(QTeam.team)
+                .orderBy(QTeam.team.id.asc())
+                .fetch();
+        for (Tuple team : teams) {
+            crc.update(ByteBuffer.allocate(8).putLong(team.get(QTeam.team.id)).array());
+            String name = team.get(QTeam.team.name);
+            crc.update(name == null ? new byte[]{-1} : name.getBytes(StandardCharsets.UTF_8));
+            crc.update(0);
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.profiling;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 요청 하나가 요청 스레드에서 할당한 바이트, CPU 시간, SQL 문 수, 읽은 행 수를 uri 별 분포로 남긴다.
+ * <ul>
+ *     <li>member.request.allocated (bytes)</li>
+ *     <li>member.request.cpu (nanoseconds)</li>
+ *     <li>member.request.sql.statements</li>
+ *     <li>member.request.sql.rows</li>
+ * </ul>
+ * debugHeader 면 응답을 버퍼링해서 X-Member-Profile 헤더로도 돌려준다. (버퍼 할당도 측정값에 들어간다)
+ * 비동기(스트리밍) 요청은 다른 스레드에서 일하므로 남기지 않는다.
+ */
+public class MemberProfilingFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Member-Profile";
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final MeterRegistry meterRegistry;
+    private final boolean debugHeader;
+    private final boolean allocationSupported;
+    private final boolean cpuTimeSupported;
+
+    public MemberProfilingFilter(MeterRegistry meterRegistry, boolean debugHeader) {
+        this.meterRegistry = meterRegistry;
+        this.debugHeader = debugHeader;
+        this.allocationSupported = threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+        this.cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = debugHeader ? new ContentCachingResponseWrapper(response) : null;
+        long threadId = Thread.currentThread().getId();
+        RequestProfile profile = RequestProfile.begin();
+        long allocatedStart = allocationSupported ? threads.getThreadAllocatedBytes(threadId) : 0;
+        long cpuStart = cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            long allocated = allocationSupported ? threads.getThreadAllocatedBytes(threadId) - allocatedStart : -1;
+            long cpu = cpuTimeSupported ? threads.getCurrentThreadCpuTime() - cpuStart : -1;
+            RequestProfile.end();
+
+            if (!request.isAsyncStarted()) {
+                record(request.getServletPath(), allocated, cpu, profile);
+                if (buffered != null) {
+                    buffered.setHeader(HEADER, String.format("alloc=%d;cpu-ns=%d;sql=%d;rows=%d",
+                            allocated, cpu, profile.getStatements(), profile.getRows()));
+                }
+            }
+            if (buffered != null) {
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void record(String uri, long allocated, long cpu, RequestProfile profile) {
+        if (allocated >= 0) {
+            summary("member.request.allocated", "bytes", uri).record(allocated);
+        }
+        if (cpu >= 0) {
+            summary("member.request.cpu", "nanoseconds", uri).record(cpu);
+        }
+        summary("member.request.sql.statements", null, uri).record(profile.getStatements());
+        summary("member.request.sql.rows", null, uri).record(profile.getRows());
+    }
+
+    private DistributionSummary summary(String name, String baseUnit, String uri) {
+        return DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tag("uri", uri)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+}
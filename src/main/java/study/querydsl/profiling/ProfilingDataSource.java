@@ -0,0 +1,157 @@
+package study.querydsl.profiling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 커넥션을 감싸서
+ * <ul>
+ *     <li>RequestProfile 이 있는 스레드면 execute* 호출 수와 ResultSet.next() 행 수를 세고</li>
+ *     <li>slowQueryRecorder 가 있으면 execute* 시간을 재서 느린 SQL 을 바인딩 값과 함께 넘긴다.</li>
+ * </ul>
+ * 둘 다 해당하지 않는 커넥션은 그대로 돌려준다.
+ * slowQueryRecorder 가 있으면 요청 스레드만이 아니라 배치, 스케줄러를 포함한 모든 커넥션과 Statement 가
+ * 프록시가 되어 JDBC 호출마다 리플렉션을 거친다. captureParams 면 setXxx 호출마다 값도 복사한다.
+ * 그래서 member.slow-query.enabled, member.slow-query.params 는 기본 false 다.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final SlowQueryRecorder slowQueryRecorder;
+    private final boolean captureParams;
+
+    /**
+     * @param slowQueryRecorder 없으면 null
+     * @param captureParams     느린 SQL 에 바인딩 값을 남길지. slowQueryRecorder 가 없으면 무시
+     */
+    public ProfilingDataSource(DataSource targetDataSource, SlowQueryRecorder slowQueryRecorder, boolean captureParams) {
+        super(targetDataSource);
+        this.slowQueryRecorder = slowQueryRecorder;
+        this.captureParams = slowQueryRecorder != null && captureParams;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        RequestProfile profile = RequestProfile.current();
+        if (profile == null && slowQueryRecorder == null) {
+            return connection;
+        }
+        return proxy(Connection.class, (p, method, args) -> {
+            Object result = invoke(connection, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            if (result instanceof CallableStatement) {
+                return proxy(CallableStatement.class, new StatementHandler((Statement) result, sql, profile));
+            }
+            if (result instanceof PreparedStatement) {
+                return proxy(PreparedStatement.class, new StatementHandler((Statement) result, sql, profile));
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, new StatementHandler((Statement) result, null, profile));
+            }
+            return result;
+        });
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final RequestProfile profile;
+        private List<Object> params = Collections.emptyList();
+
+        StatementHandler(Statement target, String preparedSql, RequestProfile profile) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.profile = profile;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (captureParams) {
+                    captureParam(name, args);
+                }
+                return resultSet(ProfilingDataSource.invoke(target, method, args));
+            }
+
+            if (profile != null) {
+                profile.statementExecuted();
+            }
+            long start = System.nanoTime();
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            long elapsed = System.nanoTime() - start;
+            if (slowQueryRecorder != null && slowQueryRecorder.isSlow(elapsed)) {
+                // Statement.execute(sql) 는 SQL 이 인자로 온다.
+                String sql = preparedSql != null ? preparedSql : (args != null && args.length > 0 ? String.valueOf(args[0]) : null);
+                slowQueryRecorder.record(sql, params, elapsed, getTargetDataSource());
+            }
+            return resultSet(result);
+        }
+
+        // setXxx(index, value, ...) 만 기록한다. (setFetchSize 같은 인자 하나짜리는 제외)
+        private void captureParam(String name, Object[] args) {
+            if ("clearParameters".equals(name)) {
+                params = Collections.emptyList();
+            } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                if (params.isEmpty()) {
+                    params = new ArrayList<>();
+                }
+                int index = (Integer) args[0] - 1;
+                while (params.size() <= index) {
+                    params.add(null);
+                }
+                params.set(index, name.equals("setNull") ? null : args[1]);
+            }
+        }
+
+        private Object resultSet(Object result) {
+            if (profile != null && result instanceof ResultSet) {
+                ResultSet resultSet = (ResultSet) result;
+                return proxy(ResultSet.class, (p, method, args) -> {
+                    Object value = ProfilingDataSource.invoke(resultSet, method, args);
+                    if (Boolean.TRUE.equals(value) && "next".equals(method.getName())) {
+                        profile.rowRead();
+                    }
+                    return value;
+                });
+            }
+            return result;
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
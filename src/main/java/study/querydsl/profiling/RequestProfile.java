@@ -0,0 +1,45 @@
+package study.querydsl.profiling;
+
+/**
+ * 요청 스레드에서 실행한 SQL 문 수와 읽은 행 수. 측정 중인 스레드에만 있다.
+ */
+public class RequestProfile {
+
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long rows;
+
+    public static RequestProfile begin() {
+        RequestProfile profile = new RequestProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return 측정 중이 아니면 null
+     */
+    public static RequestProfile current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted() {
+        statements++;
+    }
+
+    void rowRead() {
+        rows++;
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+}
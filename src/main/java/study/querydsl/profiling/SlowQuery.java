@@ -0,0 +1,30 @@
+package study.querydsl.profiling;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+public class SlowQuery {
+
+    private final Instant executedAt;
+    private final long elapsedMillis;
+    private final String sql;
+    private final List<String> params;
+    private final String origin;
+    // EXPLAIN 이 끝나면 채워진다.
+    private volatile String plan;
+
+    public SlowQuery(Instant executedAt, long elapsedMillis, String sql, List<String> params, String origin) {
+        this.executedAt = executedAt;
+        this.elapsedMillis = elapsedMillis;
+        this.sql = sql;
+        this.params = params;
+        this.origin = origin;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,144 @@
+package study.querydsl.profiling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * threshold 이상 걸린 SQL 만 바인딩 값, 호출한 메서드와 함께 로그로 남기고 최근 capacity 건을 링 버퍼에 둔다.
+ * select 는 별도 스레드에서 EXPLAIN 해서 plan 을 채운다. (큐가 차면 버린다)
+ * 호출 위치는 느린 경우에만 스택에서 찾으므로 빠른 쿼리에는 비용이 없다.
+ */
+public class SlowQueryRecorder implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryRecorder.class);
+
+    private final long thresholdNanos;
+    private final SlowQuery[] ring;
+    private final ThreadPoolExecutor explainExecutor;
+    private long recorded;
+
+    public SlowQueryRecorder(long thresholdMillis, int capacity, boolean explain) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("member.slow-query.capacity must be positive: " + capacity);
+        }
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.ring = new SlowQuery[capacity];
+        this.explainExecutor = explain ? explainExecutor(capacity) : null;
+    }
+
+    public boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * @param dataSource EXPLAIN 할 때 쓸 (감싸지 않은) DataSource
+     */
+    public void record(String sql, List<Object> params, long elapsedNanos, DataSource dataSource) {
+        List<String> values = new ArrayList<>(params.size());
+        for (Object param : params) {
+            values.add(String.valueOf(param));
+        }
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sql, values, origin());
+        log.warn("slow query {} ms at {}: {} {}", slowQuery.getElapsedMillis(), slowQuery.getOrigin(), sql, values);
+
+        synchronized (this) {
+            ring[(int) (recorded++ % ring.length)] = slowQuery;
+        }
+        // 바인딩 값을 안 남겼으면 (params=false) 파라미터가 있는 SQL 은 EXPLAIN 할 수 없다.
+        if (explainExecutor != null && isSelect(sql) && (!params.isEmpty() || sql.indexOf('?') < 0)) {
+            List<Object> bound = new ArrayList<>(params);
+            explainExecutor.execute(() -> slowQuery.setPlan(explain(dataSource, sql, bound)));
+        }
+    }
+
+    /**
+     * @return 최근 것부터
+     */
+    public synchronized List<SlowQuery> recent() {
+        int size = (int) Math.min(recorded, ring.length);
+        List<SlowQuery> result = new ArrayList<>(size);
+        for (long i = recorded - 1; i >= recorded - size; i--) {
+            result.add(ring[(int) (i % ring.length)]);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        recorded = 0;
+    }
+
+    @Override
+    public void destroy() {
+        if (explainExecutor != null) {
+            explainExecutor.shutdownNow();
+        }
+    }
+
+    // 스택에서 처음 나오는 이 애플리케이션의 메서드. (프록시, 쿼리 가드, 프로파일링 코드는 건너뛴다)
+    private static String origin() {
+        for (StackTraceElement frame : Thread.currentThread().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("study.querydsl.")
+                    && !className.startsWith("study.querydsl.profiling.")
+                    && !className.startsWith("study.querydsl.repository.support.")
+                    && !className.contains("$$")) {
+                return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+            }
+        }
+        return "unknown";
+    }
+
+    // use_sql_comments 로 붙은 앞쪽 /* */ 주석은 건너뛴다.
+    private static boolean isSelect(String sql) {
+        if (sql == null) {
+            return false;
+        }
+        String head = sql.trim();
+        while (head.startsWith("/*") && head.contains("*/")) {
+            head = head.substring(head.indexOf("*/") + 2).trim();
+        }
+        head = head.toLowerCase(Locale.ROOT);
+        return head.startsWith("select") || head.startsWith("with");
+    }
+
+    private static String explain(DataSource dataSource, String sql, List<Object> params) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("explain " + sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString().trim();
+        } catch (Exception e) {
+            return "explain failed: " + e.getMessage();
+        }
+    }
+
+    private static ThreadPoolExecutor explainExecutor(int capacity) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+}
@@ -0,0 +1,212 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.NumberPath;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.sql.SQLExpressions;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeAggregateDto;
+import study.querydsl.dto.MemberAgeAvgDto;
+import study.querydsl.dto.MemberAgeRankDto;
+import study.querydsl.dto.QAgeAggregateDto;
+import study.querydsl.dto.QMemberAgeRankDto;
+import study.querydsl.dto.UserDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeamStat;
+import study.querydsl.repository.support.WindowFunctions;
+import study.querydsl.sql.SMember;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * JPAExpressions 스칼라 서브쿼리 대신 집계를 한 번 구해서 상수로 넣는 조회.
+ * select 절의 서브쿼리는 행마다 평가되고, where 절도 DB 에 따라 캐시되지 않는다.
+ * 팀 단위(상관 서브쿼리)는 미리 집계된 team_stat 과 조인하거나 윈도우 함수로 한 번에 구한다.
+ * 윈도우 함수 결과로 거르는 조회는 querydsl-sql 파생 테이블로 DB 에서 거른다.
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MemberAggregateQueries {
+
+    private static final PathBuilder<Tuple> RANKED = new PathBuilder<>(Tuple.class, "ranked");
+    private static final NumberPath<Long> RANKED_MEMBER_ID = RANKED.getNumber("member_id", Long.class);
+    private static final StringPath RANKED_USERNAME = RANKED.getString("username");
+    private static final NumberPath<Integer> RANKED_AGE = RANKED.getNumber("age", Integer.class);
+    private static final NumberPath<Long> RANKED_TEAM_ID = RANKED.getNumber("team_id", Long.class);
+    private static final NumberPath<Long> RANKED_AGE_RANK = RANKED.getNumber("age_rank", Long.class);
+    private static final NumberPath<Double> RANKED_TEAM_AGE_AVG = RANKED.getNumber("team_age_avg", Double.class);
+    private static final NumberPath<Integer> RANKED_TEAM_AGE_MAX = RANKED.getNumber("team_age_max", Integer.class);
+
+    private final JPAQueryFactory jpaQueryFactory;
+    private final SQLQueryFactory sqlQueryFactory;
+
+    public MemberAggregateQueries(JPAQueryFactory jpaQueryFactory, SQLQueryFactory sqlQueryFactory) {
+        this.jpaQueryFactory = jpaQueryFactory;
+        this.sqlQueryFactory = sqlQueryFactory;
+    }
+
+    /**
+     * 전체 회원의 count, min, max, avg 를 스캔 한 번으로.
+     */
+    public AgeAggregateDto ageAggregates() {
+        return jpaQueryFactory
+                .select(new QAgeAggregateDto(
+                        QMember.member.count(),
+                        QMember.member.age.min(),
+                        QMember.member.age.max(),
+                        QMember.member.age.avg()))
+                .from(QMember.member)
+                .fetchOne();
+    }
+
+    /**
+     * 나이가 가장 많은 회원. (age = (select max(age) ...))
+     */
+    public List<Member> findOldest() {
+        Integer ageMax = ageAggregates().getAgeMax();
+        if (ageMax == null) {
+            return Collections.emptyList();
+        }
+        return jpaQueryFactory
+                .selectFrom(QMember.member)
+                .where(QMember.member.age.eq(ageMax))
+                .fetch();
+    }
+
+    /**
+     * 나이가 평균 이상인 회원. (age >= (select avg(age) ...))
+     */
+    public List<Member> findAgeGoeAverage() {
+        Double ageAvg = ageAggregates().getAgeAvg();
+        if (ageAvg == null) {
+            return Collections.emptyList();
+        }
+        // 정수 age >= 실수 avg 는 age >= ceil(avg) 와 같다.
+        return jpaQueryFactory
+                .selectFrom(QMember.member)
+                .where(QMember.member.age.goe((int) Math.ceil(ageAvg)))
+                .fetch();
+    }
+
+    /**
+     * 회원 이름과 전체 평균 나이. (select username, (select avg(age) ...))
+     */
+    public List<MemberAgeAvgDto> findUsernamesWithAgeAvg() {
+        Double ageAvg = ageAggregates().getAgeAvg();
+        return jpaQueryFactory
+                .select(QMember.member.username)
+                .from(QMember.member)
+                .fetch()
+                .stream()
+                .map(username -> new MemberAgeAvgDto(username, ageAvg))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 회원 이름과 전체 최대 나이. (findUserDtoWithSubQuery)
+     */
+    public List<UserDto> findUserDtosWithAgeMax() {
+        Integer ageMax = ageAggregates().getAgeMax();
+        int age = ageMax == null ? 0 : ageMax;
+        return jpaQueryFactory
+                .select(QMember.member.username)
+                .from(QMember.member)
+                .fetch()
+                .stream()
+                .map(username -> UserDto.builder().name(username).age(age).build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 소속 팀 평균 나이 이상인 회원. (age >= (select avg(sub.age) ... where sub.team = member.team))
+     * age * memberCount >= ageSum 으로 비교해 실수 오차가 없다. 팀이 없는 회원은 제외.
+     */
+    public List<Member> findAgeGoeTeamAverage() {
+        QTeamStat teamStat = QTeamStat.teamStat;
+        return jpaQueryFactory
+                .select(QMember.member)
+                .from(QMember.member, teamStat)
+                .where(QMember.member.team.id.eq(teamStat.teamId),
+                        QMember.member.age.multiply(teamStat.memberCount).goe(teamStat.ageSum))
+                .fetch();
+    }
+
+    /**
+     * 팀 안에서 나이 내림차순 순위, 팀 평균/최대 나이. 팀이 없는 회원은 제외.
+     * 윈도우 함수는 where 에 쓸 수 없다. 순위/평균으로 거를 때는 rankedMembers() 의 파생 테이블을 쓴다.
+     */
+    public List<MemberAgeRankDto> findTeamAgeRanks() {
+        QMember member = QMember.member;
+        return jpaQueryFactory
+                .select(new QMemberAgeRankDto(
+                        member.id,
+                        member.username,
+                        member.age,
+                        member.team.id,
+                        WindowFunctions.rankDesc(member.team.id, member.age),
+                        WindowFunctions.avg(member.age, member.team.id),
+                        WindowFunctions.max(member.age, member.team.id)))
+                .from(member)
+                .where(member.team.isNotNull())
+                .orderBy(member.team.id.asc(), member.age.desc())
+                .fetch();
+    }
+
+    /**
+     * 팀별 나이가 가장 많은 회원. (동률이면 모두)
+     */
+    public List<MemberAgeRankDto> findOldestPerTeam() {
+        return rankedMembers()
+                .where(RANKED_AGE_RANK.eq(1L))
+                .fetch();
+    }
+
+    /**
+     * 소속 팀 평균 나이 이상인 회원. team_stat 없이 윈도우 함수로.
+     */
+    public List<MemberAgeRankDto> findAgeGoeTeamAverageByWindow() {
+        return rankedMembers()
+                .where(RANKED_AGE.goe(RANKED_TEAM_AGE_AVG))
+                .fetch();
+    }
+
+    /**
+     * select * from (select ..., rank() over (...) age_rank ...) ranked
+     * JPQL 은 from 절 서브쿼리가 없으므로 querydsl-sql 로 걸러서 필요한 행만 가져온다.
+     * querydsl-sql 은 JPA 자동 flush 대상이 아니므로 flush 된 변경만 보인다.
+     */
+    private SQLQuery<MemberAgeRankDto> rankedMembers() {
+        SMember member = SMember.member;
+        SQLQuery<Tuple> ranked = SQLExpressions
+                .select(member.memberId.as(RANKED_MEMBER_ID.getMetadata().getName()),
+                        member.username.as(RANKED_USERNAME.getMetadata().getName()),
+                        member.age.as(RANKED_AGE.getMetadata().getName()),
+                        member.teamId.as(RANKED_TEAM_ID.getMetadata().getName()),
+                        SQLExpressions.rank().over()
+                                .partitionBy(member.teamId)
+                                .orderBy(member.age.desc())
+                                .as(RANKED_AGE_RANK.getMetadata().getName()),
+                        SQLExpressions.avg(member.age.castToNum(Double.class)).over()
+                                .partitionBy(member.teamId)
+                                .as(RANKED_TEAM_AGE_AVG.getMetadata().getName()),
+                        SQLExpressions.max(member.age).over()
+                                .partitionBy(member.teamId)
+                                .as(RANKED_TEAM_AGE_MAX.getMetadata().getName()))
+                .from(member)
+                .where(member.teamId.isNotNull());
+
+        return sqlQueryFactory
+                .select(new QMemberAgeRankDto(RANKED_MEMBER_ID, RANKED_USERNAME, RANKED_AGE, RANKED_TEAM_ID,
+                        RANKED_AGE_RANK, RANKED_TEAM_AGE_AVG, RANKED_TEAM_AGE_MAX))
+                .from(ranked, RANKED)
+                .orderBy(RANKED_TEAM_ID.asc(), RANKED_AGE.desc());
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.util.List;
+
+public interface MemberBulkRepository {
+
+    /**
+     * 조건에 맞는 회원을 teamId 팀으로 옮긴다. 반환값은 id 구간(chunkSize)별 변경 건수.
+     */
+    List<Long> bulkChangeTeam(MemberSearchCondition memberSearchCondition, Long teamId, int chunkSize);
+
+    /**
+     * ageGoe ~ ageLoe 인 회원 나이에 amount 를 더한다. 반환값은 id 구간(chunkSize)별 변경 건수.
+     */
+    List<Long> bulkAddAge(int amount, int ageGoe, int ageLoe, int chunkSize);
+}
@@ -0,0 +1,219 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
+import study.querydsl.entity.Team;
+import study.querydsl.event.MemberBulkUpdatedEvent;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * JPAUpdateClause 로 하는 set 기반 벌크 연산.
+ * id 구간별로 나눠 실행하고, 호출자 트랜잭션이 없으면 구간마다 커밋해서 락을 오래 잡지 않는다.
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 전에 flush, 후에 clear 하고 2차 캐시의 Member 도 비운다.
+ * 동시에 엔티티로 수정 중인 트랜잭션이 충돌을 감지하도록 version 도 올린다.
+ * 구간마다 조건에 맞는 행을 잠그고 id 로 update 하며, 바뀐 회원과 팀을 이벤트로 넘긴다.
+ */
+public class MemberBulkRepositoryImpl implements MemberBulkRepository {
+
+    // 이보다 많이 바뀌면 id 를 모으지 않고 파생 데이터 전체를 다시 맞춘다.
+    private static final int MAX_TRACKED_IDS = 10_000;
+
+    private final EntityManager em;
+    private final JPAQueryFactory jpaQueryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public MemberBulkRepositoryImpl(EntityManager em, PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.em = em;
+        this.jpaQueryFactory = new JPAQueryFactory(em);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public List<Long> bulkChangeTeam(MemberSearchCondition memberSearchCondition, Long teamId, int chunkSize) {
+        BooleanExpression[] conditions = {
+                usernameEq(memberSearchCondition.getUsername()),
+                teamNameEq(memberSearchCondition.getTeamName()),
+                ageGoe(memberSearchCondition.getAgeGoe()),
+                ageLoe(memberSearchCondition.getAgeLoe())
+        };
+        return updateInChunks("bulkChangeTeam", chunkSize, conditions, Collections.singleton(teamId), ids -> jpaQueryFactory
+                .update(QMember.member)
+                .set(QMember.member.team, em.getReference(Team.class, teamId))
+                .set(QMember.member.version, QMember.member.version.add(1))
+                .where(QMember.member.id.in(ids)));
+    }
+
+    @Override
+    public List<Long> bulkAddAge(int amount, int ageGoe, int ageLoe, int chunkSize) {
+        BooleanExpression[] conditions = {QMember.member.age.between(ageGoe, ageLoe)};
+        return updateInChunks("bulkAddAge", chunkSize, conditions, Collections.emptySet(), ids -> jpaQueryFactory
+                .update(QMember.member)
+                .set(QMember.member.age, QMember.member.age.add(amount))
+                .set(QMember.member.version, QMember.member.version.add(1))
+                .where(QMember.member.id.in(ids)));
+    }
+
+    /**
+     * @param targetTeamIds 바뀐 회원이 새로 속하게 되는 팀 (통계를 다시 맞출 팀에 더한다)
+     */
+    private List<Long> updateInChunks(String operation, int chunkSize, BooleanExpression[] conditions,
+                                      Set<Long> targetTeamIds, Function<List<Long>, JPAUpdateClause> updateClause) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        boolean chunkCommits = !TransactionSynchronizationManager.isActualTransactionActive();
+        if (!chunkCommits) {
+            em.flush();
+        }
+
+        Affected affected = new Affected(targetTeamIds);
+        List<Long> counts = new ArrayList<>();
+        try {
+            // 구간은 실제 id 로 나눈다. (pooled-lo, 삭제로 id 가 듬성듬성해도 구간마다 chunkSize 건)
+            long lastId = Long.MIN_VALUE;
+            while (true) {
+                Long upperId = chunkUpperId(lastId, chunkSize);
+                if (upperId == null) {
+                    break;
+                }
+                BooleanExpression idRange = QMember.member.id.gt(lastId).and(QMember.member.id.loe(upperId));
+                counts.add(transactionTemplate.execute(status -> {
+                    // 바꿀 행을 잠그고 id 와 원래 팀을 읽는다. 파생 데이터는 이 범위만 다시 맞춘다.
+                    List<Tuple> rows = jpaQueryFactory
+                            .select(QMember.member.id, QMember.member.team.id)
+                            .from(QMember.member)
+                            .where(idRange)
+                            .where(conditions)
+                            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                            .fetch();
+                    if (rows.isEmpty()) {
+                        return 0L;
+                    }
+                    List<Long> ids = rows.stream().map(row -> row.get(QMember.member.id)).collect(Collectors.toList());
+                    long updated = updateClause.apply(ids).execute();
+                    affected.add(rows);
+                    return updated;
+                }));
+                lastId = upperId;
+            }
+        } catch (RuntimeException e) {
+            // 구간마다 커밋했다면 이미 커밋된 변경도 파생 데이터에 반영한다.
+            if (chunkCommits && !counts.isEmpty()) {
+                try {
+                    publishUpdated(operation, counts, affected);
+                } catch (RuntimeException publishFailure) {
+                    e.addSuppressed(publishFailure);
+                }
+            }
+            throw e;
+        }
+        publishUpdated(operation, counts, affected);
+        return counts;
+    }
+
+    /**
+     * id 가 lastId 보다 큰 회원 중 chunkSize 번째 id. 남은 회원이 그보다 적으면 마지막 id, 없으면 null.
+     */
+    private Long chunkUpperId(long lastId, int chunkSize) {
+        Long upperId = jpaQueryFactory
+                .select(QMember.member.id)
+                .from(QMember.member)
+                .where(QMember.member.id.gt(lastId))
+                .orderBy(QMember.member.id.asc())
+                .offset(chunkSize - 1)
+                .limit(1)
+                .fetchOne();
+        if (upperId != null) {
+            return upperId;
+        }
+        return jpaQueryFactory
+                .select(QMember.member.id.max())
+                .from(QMember.member)
+                .where(QMember.member.id.gt(lastId))
+                .fetchOne();
+    }
+
+    private void publishUpdated(String operation, List<Long> counts, Affected affected) {
+        long total = counts.stream().mapToLong(Long::longValue).sum();
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new MemberBulkUpdatedEvent(operation, total, affected.memberIds, affected.teamIds));
+            em.clear();
+        });
+        em.getEntityManagerFactory().getCache().evict(Member.class);
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? QMember.member.username.eq(username) : null;
+    }
+
+    // update 절에서는 join 을 못 쓰므로 서브쿼리로 팀을 찾는다.
+    private BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName)
+                ? QMember.member.team.id.in(JPAExpressions
+                .select(QTeam.team.id)
+                .from(QTeam.team)
+                .where(QTeam.team.name.eq(teamName)))
+                : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? QMember.member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? QMember.member.age.loe(ageLoe) : null;
+    }
+
+    /**
+     * 바뀐 회원 id, 영향받은 팀 id. MAX_TRACKED_IDS 를 넘으면 모으지 않고 null (전체를 다시 맞춘다)
+     */
+    private static class Affected {
+        private Set<Long> memberIds = new HashSet<>();
+        private Set<Long> teamIds;
+
+        Affected(Set<Long> targetTeamIds) {
+            this.teamIds = new HashSet<>(targetTeamIds);
+        }
+
+        void add(List<Tuple> rows) {
+            if (memberIds == null) {
+                return;
+            }
+            for (Tuple row : rows) {
+                memberIds.add(row.get(QMember.member.id));
+                Long teamId = row.get(QMember.member.team.id);
+                if (teamId != null) {
+                    teamIds.add(teamId);
+                }
+            }
+            if (memberIds.size() > MAX_TRACKED_IDS) {
+                memberIds = null;
+                teamIds = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * 배치 작업용으로 Member 전체를 id 순 청크로 읽는다. (keyset: id > 마지막 id order by id limit n)
+ * 청크마다 새 트랜잭션에서 handler 를 실행하고 flush, clear 후 커밋한다. handler 의 변경은 그대로 저장된다.
+ * 커밋 후 마지막 id 를 checkpoint 로 넘기므로 실패하면 그 id 부터 다시 시작할 수 있다.
+ */
+@Repository
+public class MemberChunkReader {
+
+    private final EntityManager em;
+    private final JPAQueryFactory jpaQueryFactory;
+    private final TransactionTemplate chunkTransactionTemplate;
+
+    public MemberChunkReader(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        // 전체를 읽는 용도라 쿼리 가드(max-rows)를 타지 않게 직접 만든다.
+        this.jpaQueryFactory = new JPAQueryFactory(em);
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * fromIdExclusive 이후 전체를 읽는다. 처음부터면 0.
+     *
+     * @return 처리한 회원 수
+     */
+    public long forEachChunk(long fromIdExclusive, int chunkSize, Consumer<List<Member>> handler, LongConsumer checkpoint) {
+        return forEachChunk(new MemberIdRange(0, fromIdExclusive, Long.MAX_VALUE), chunkSize, handler, checkpoint);
+    }
+
+    public long forEachChunk(MemberIdRange range, int chunkSize, Consumer<List<Member>> handler, LongConsumer checkpoint) {
+        long lastId = range.getFromIdExclusive();
+        long processed = 0;
+        while (true) {
+            long after = lastId;
+            List<Member> chunk = chunkTransactionTemplate.execute(status -> {
+                List<Member> members = jpaQueryFactory
+                        .selectFrom(QMember.member)
+                        .where(QMember.member.id.gt(after), QMember.member.id.loe(range.getToIdInclusive()))
+                        .orderBy(QMember.member.id.asc())
+                        .limit(chunkSize)
+                        .fetch();
+                if (!members.isEmpty()) {
+                    handler.accept(members);
+                    em.flush();
+                    em.clear();
+                }
+                return members;
+            });
+            if (chunk.isEmpty()) {
+                return processed;
+            }
+            processed += chunk.size();
+            lastId = chunk.get(chunk.size() - 1).getId();
+            checkpoint.accept(lastId);
+            if (chunk.size() < chunkSize) {
+                return processed;
+            }
+        }
+    }
+
+    /**
+     * 현재 id 범위를 workers 개의 구간으로 나눈다. id 가 시퀀스라 구간별 건수는 대략 같다.
+     */
+    public List<MemberIdRange> partitions(int workers) {
+        Tuple bounds = chunkTransactionTemplate.execute(status -> jpaQueryFactory
+                .select(QMember.member.id.min(), QMember.member.id.max())
+                .from(QMember.member)
+                .fetchOne());
+        List<MemberIdRange> ranges = new ArrayList<>();
+        Long minId = bounds == null ? null : bounds.get(QMember.member.id.min());
+        Long maxId = bounds == null ? null : bounds.get(QMember.member.id.max());
+        if (minId == null || maxId == null) {
+            return ranges;
+        }
+        long from = minId - 1;
+        long span = Math.max(1, (maxId - from + workers - 1) / workers);
+        for (int i = 0; i < workers && from < maxId; i++) {
+            long to = i == workers - 1 ? maxId : Math.min(maxId, from + span);
+            ranges.add(new MemberIdRange(i, from, to));
+            from = to;
+        }
+        return ranges;
+    }
+
+    /**
+     * 구간마다 독립된 워커(각자 트랜잭션, 영속성 컨텍스트)로 읽는다.
+     * 한 구간이 실패해도 나머지는 끝까지 돌고, 구간별 체크포인트로 실패한 구간만 resumeFrom 해서 다시 돌리면 된다.
+     *
+     * @return 처리한 회원 수
+     */
+    public long forEachChunkParallel(List<MemberIdRange> ranges, int chunkSize, Consumer<List<Member>> handler,
+                                     BiConsumer<MemberIdRange, Long> checkpoint, Executor executor) {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (MemberIdRange range : ranges) {
+            futures.add(CompletableFuture.supplyAsync(() -> forEachChunk(range, chunkSize, handler,
+                    lastId -> checkpoint.accept(range, lastId)), executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return futures.stream().mapToLong(CompletableFuture::join).sum();
+    }
+}
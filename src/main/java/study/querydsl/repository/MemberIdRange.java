@@ -0,0 +1,29 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * (fromIdExclusive, toIdInclusive] 구간. 워커 하나가 맡는 범위이자 재시작 지점.
+ */
+@Getter
+@ToString
+public class MemberIdRange {
+
+    private final int partition;
+    private final long fromIdExclusive;
+    private final long toIdInclusive;
+
+    public MemberIdRange(int partition, long fromIdExclusive, long toIdInclusive) {
+        this.partition = partition;
+        this.fromIdExclusive = fromIdExclusive;
+        this.toIdInclusive = toIdInclusive;
+    }
+
+    /**
+     * 체크포인트(마지막으로 처리한 id) 이후부터 다시 읽는 구간.
+     */
+    public MemberIdRange resumeFrom(long checkpointId) {
+        return new MemberIdRange(partition, Math.max(fromIdExclusive, checkpointId), toIdInclusive);
+    }
+}
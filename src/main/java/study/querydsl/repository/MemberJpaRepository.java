@@ -3,61 +3,210 @@ package study.querydsl.repository;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
+import study.querydsl.dto.BatchSaveResult;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
+import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.OptimisticLockException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 public class MemberJpaRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(MemberJpaRepository.class);
+
     private final EntityManager em;
     private final JPAQueryFactory jpaQueryFactory;
+    private final TransactionTemplate retryTransactionTemplate;
+    private final int windowSize;
+    private final int retryMaxAttempts;
+    private final long retryBackoffMillis;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em,
+                               JPAQueryFactory jpaQueryFactory,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${member.batch.window-size:1000}") int windowSize,
+                               @Value("${member.retry.max-attempts:5}") int retryMaxAttempts,
+                               @Value("${member.retry.backoff-ms:10}") long retryBackoffMillis) {
         this.em = em;
-        jpaQueryFactory = new JPAQueryFactory(em);
+        this.jpaQueryFactory = jpaQueryFactory;
+        this.retryTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.retryTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.windowSize = windowSize;
+        this.retryMaxAttempts = retryMaxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
     }
 
     public void save(Member member) {
         em.persist(member);
     }
 
+    @Transactional
+    public BatchSaveResult saveAll(Iterable<Member> members) {
+        return saveAll(members, windowSize);
+    }
+
+    @Transactional
+    public BatchSaveResult saveAll(Stream<Member> members) {
+        try (Stream<Member> stream = members) {
+            return saveAll(stream::iterator, windowSize);
+        }
+    }
+
+    /**
+     * windowSize 건마다 flush + clear 해서 영속성 컨텍스트가 커지지 않게 저장한다.
+     * (hibernate.jdbc.batch_size 와 같이 쓰면 window 단위로 배치 insert)
+     * clear 는 다음 window 를 시작할 때 하므로 마지막 window 의 회원은 managed 로 남는다.
+     * 그 앞 window 의 회원과 호출 전에 영속성 컨텍스트에 있던 엔티티는 detached 가 된다.
+     */
+    @Transactional
+    public BatchSaveResult saveAll(Iterable<Member> members, int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("windowSize must be positive: " + windowSize);
+        }
+        long start = System.nanoTime();
+        long rows = 0;
+        int windows = 0;
+        int inWindow = 0;
+        for (Member member : members) {
+            if (inWindow == windowSize) {
+                em.clear();
+                inWindow = 0;
+            }
+            attachTeam(member);
+            em.persist(member);
+            rows++;
+            if (++inWindow == windowSize) {
+                em.flush();
+                windows++;
+            }
+        }
+        if (inWindow > 0 && inWindow < windowSize) {
+            em.flush();
+            windows++;
+        }
+
+        BatchSaveResult result = new BatchSaveResult(rows, windows, System.nanoTime() - start);
+        log.info("saveAll: {} rows in {} windows, {} ms, {} rows/s",
+                result.getRows(), result.getWindows(), result.getElapsedMillis(), (long) result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * 회원을 새 트랜잭션에서 읽어 change 를 적용하고 커밋한다.
+     * 다른 트랜잭션이 먼저 바꿔 version 충돌이 나면 지수 백오프(+지터) 후 다시 읽어서 재시도한다.
+     *
+     * @return 시도 횟수 (1 이면 충돌 없음)
+     * @throws OptimisticLockingFailureException max-attempts 번 모두 충돌한 경우
+     */
+    public int updateWithRetry(Long memberId, Consumer<Member> change) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                retryTransactionTemplate.executeWithoutResult(status -> {
+                    Member member = em.find(Member.class, memberId);
+                    if (member == null) {
+                        throw new IllegalArgumentException("member not found: " + memberId);
+                    }
+                    change.accept(member);
+                });
+                return attempt;
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= retryMaxAttempts) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * 행 잠금(select ... for update)을 잡고 나이를 더한다. 동시 수정은 잠금에서 기다리므로 version 충돌이 없다.
+     * JPQL update 와 달리 엔티티 변경이라 Hibernate 이벤트로 team_stat, member_team_view, 인메모리 인덱스가 같이 갱신된다.
+     *
+     * @return 변경한 회원 수 (없으면 0)
+     */
+    @Transactional
+    public long addAge(Long memberId, int amount) {
+        Member member = em.find(Member.class, memberId, LockModeType.PESSIMISTIC_WRITE);
+        if (member == null) {
+            return 0;
+        }
+        member.setAge(member.getAge() + amount);
+        return 1;
+    }
+
+    private void backoff(int attempt) {
+        long max = retryBackoffMillis << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(max / 2, max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while retrying member update", e);
+        }
+    }
+
+    // clear 로 detach 된 팀은 members 컬렉션을 로딩하지 않도록 참조(프록시)로만 다시 연결한다.
+    private void attachTeam(Member member) {
+        Team team = member.getTeam();
+        if (team != null && team.getId() != null && !em.contains(team)) {
+            member.setTeam(em.getReference(Team.class, team.getId()));
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Member> findById(Long id) {
         Member member = em.find(Member.class, id);
         return Optional.ofNullable(member);
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findAll_querydsl() {
         return jpaQueryFactory.selectFrom(QMember.member)
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUsername(String username) {
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username", username)
                 .getResultList();
     }
 
+    @Transactional(readOnly = true)
     public List<Member> findByUsername_querydsl(String username) {
         return jpaQueryFactory.selectFrom(QMember.member)
                 .where(QMember.member.username.eq(username))
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition memberSearchCondition) {
         BooleanBuilder booleanBuilder = new BooleanBuilder();
         if (StringUtils.hasText(memberSearchCondition.getUsername())) {
@@ -90,6 +239,7 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition memberSearchCondition) {
         return jpaQueryFactory
                 .select(new QMemberTeamDto(
@@ -110,6 +260,33 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * id 가 lastMemberId 보다 큰 회원을 id 순으로 limit 건 조회한다. (keyset 페이징, 처음은 lastMemberId = 0)
+     */
+    @Transactional(readOnly = true)
+    public List<MemberTeamDto> searchAfter(MemberSearchCondition memberSearchCondition, long lastMemberId, int limit) {
+        return jpaQueryFactory
+                .select(new QMemberTeamDto(
+                        QMember.member.id.as("memberId"),
+                        QMember.member.username,
+                        QMember.member.age,
+                        QTeam.team.id.as("teamId"),
+                        QTeam.team.name.as("teamName")
+                ))
+                .from(QMember.member)
+                .leftJoin(QMember.member.team, QTeam.team)
+                .where(
+                        QMember.member.id.gt(lastMemberId),
+                        usernameEq(memberSearchCondition.getUsername()),
+                        teamNameEq(memberSearchCondition.getTeamName()),
+                        ageGoe(memberSearchCondition.getAgeGoe()),
+                        ageLoe(memberSearchCondition.getAgeLoe())
+                )
+                .orderBy(QMember.member.id.asc())
+                .limit(limit)
+                .fetch();
+    }
+
     private BooleanExpression usernameEq(String username) {
         return StringUtils.hasText(username) ? QMember.member.username.eq(username) : null;
     }
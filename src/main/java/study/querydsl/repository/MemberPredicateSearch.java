@@ -0,0 +1,117 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * 웹에서 바인딩된 Predicate 로 회원을 찾는다. (/v4/members)
+ * 인덱스(uk_member_username, idx_team_name)를 eq 로 타는 조건이 하나는 있어야 한다. age 는 같이 쓸 때만 허용.
+ * 조건 모양(상수를 뺀 식) 별 허용 여부는 캐시한다. 같은 모양이면 JPQL 도 같아 Hibernate 쿼리 플랜 캐시를 그대로 탄다.
+ */
+@Component
+public class MemberPredicateSearch {
+
+    private static final Set<String> INDEXED_PATHS = new HashSet<>(Arrays.asList("member.username", "member.team.name"));
+    private static final Set<String> SORTABLE = new HashSet<>(Arrays.asList("id", "username", "age"));
+
+    private final MemberRepository memberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxPageSize;
+    private final ConcurrentMap<String, Boolean> shapes = new ConcurrentHashMap<>();
+
+    public MemberPredicateSearch(MemberRepository memberRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${member.predicate.max-page-size:100}") int maxPageSize,
+                                 @Value("${member.predicate.timeout-seconds:3}") int timeoutSeconds) {
+        this.memberRepository = memberRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // 트랜잭션 timeout 이 안에서 만든 쿼리의 javax.persistence.query.timeout 으로 걸린다.
+        this.transactionTemplate.setTimeout(timeoutSeconds);
+        this.maxPageSize = maxPageSize;
+    }
+
+    public Page<MemberTeamDto> search(Predicate predicate, Pageable pageable) {
+        if (predicate == null) {
+            throw new UnsupportedPredicateException("username 이나 team.name 조건이 필요합니다.");
+        }
+        String shape = shapeOf(predicate);
+        if (!shapes.computeIfAbsent(shape, key -> usesIndex(predicate))) {
+            throw new UnsupportedPredicateException("인덱스를 쓰지 않는 조건입니다: " + shape);
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE.contains(order.getProperty())) {
+                throw new UnsupportedPredicateException("정렬할 수 없는 필드입니다: " + order.getProperty());
+            }
+        }
+        Pageable clamped = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), maxPageSize),
+                pageable.getSort());
+
+        QMember member = QMember.member;
+        QTeam team = QTeam.team;
+        return transactionTemplate.execute(status -> memberRepository.findPage(predicate,
+                new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name),
+                query -> query.leftJoin(member.team, team), clamped));
+    }
+
+    /**
+     * 상수를 ? 로 바꾼 식. ex) AND(EQ(member.username,?),BETWEEN(member.age,?,?))
+     */
+    static String shapeOf(Expression<?> expression) {
+        if (expression instanceof Path) {
+            return expression.toString();
+        }
+        if (!(expression instanceof Operation)) {
+            return "?";
+        }
+        Operation<?> operation = (Operation<?>) expression;
+        return operation.getArgs().stream()
+                .map(MemberPredicateSearch::shapeOf)
+                .collect(Collectors.joining(",", operation.getOperator() + "(", ")"));
+    }
+
+    // or 로 묶이면 한쪽만 인덱스를 타도 전체 스캔이므로 and 로만 연결된 eq 조건을 본다.
+    private static boolean usesIndex(Expression<?> expression) {
+        if (!(expression instanceof Operation)) {
+            return false;
+        }
+        Operation<?> operation = (Operation<?>) expression;
+        if (operation.getOperator() == Ops.AND) {
+            return operation.getArgs().stream().anyMatch(MemberPredicateSearch::usesIndex);
+        }
+        return operation.getOperator() == Ops.EQ
+                && operation.getArg(0) instanceof Path
+                && INDEXED_PATHS.contains(operation.getArg(0).toString());
+    }
+
+    /**
+     * 허용하지 않는 조건, 정렬. 웹 응답(400)은 MemberController 가 정한다.
+     */
+    public static class UnsupportedPredicateException extends IllegalArgumentException {
+        public UnsupportedPredicateException(String message) {
+            super(message);
+        }
+    }
+}
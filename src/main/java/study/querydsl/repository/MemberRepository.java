@@ -1,12 +1,75 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.querydsl.binding.QuerydslBinderCustomizer;
+import org.springframework.data.querydsl.binding.QuerydslBindings;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.support.ExtendedQuerydslPredicateExecutor;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom,
-        QuerydslPredicateExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberBulkRepository,
+        QuerydslPredicateExecutor<Member>, ExtendedQuerydslPredicateExecutor<Member>,
+        QuerydslBinderCustomizer<QMember> {
+
+    /**
+     * @QuerydslPredicate 바인딩. 목록에 없는 파라미터는 무시한다.
+     * age 는 값이 여러 개면 최소~최대 범위, 하나면 eq.
+     */
+    @Override
+    default void customize(QuerydslBindings bindings, QMember member) {
+        bindings.including(member.username, member.age, member.team.name);
+        bindings.excludeUnlistedProperties(true);
+        bindings.bind(member.username).first((path, value) -> path.eq(value));
+        bindings.bind(member.team.name).first((path, value) -> path.eq(value));
+        bindings.bind(member.age).all((path, values) -> Optional.of(values.size() == 1
+                ? path.eq(values.iterator().next())
+                : path.between(Collections.min(values), Collections.max(values))));
+    }
+
+    @Transactional(readOnly = true)
     List<Member> findByUsername(String username);
+
+    // QuerydslPredicateExecutor 조회는 트랜잭션 설정이 없어 replica 로 보내려면 다시 선언해야 한다.
+    @Override
+    @Transactional(readOnly = true)
+    Optional<Member> findOne(Predicate predicate);
+
+    @Override
+    @Transactional(readOnly = true)
+    Iterable<Member> findAll(Predicate predicate);
+
+    @Override
+    @Transactional(readOnly = true)
+    Iterable<Member> findAll(Predicate predicate, Sort sort);
+
+    @Override
+    @Transactional(readOnly = true)
+    Iterable<Member> findAll(Predicate predicate, OrderSpecifier<?>... orders);
+
+    @Override
+    @Transactional(readOnly = true)
+    Iterable<Member> findAll(OrderSpecifier<?>... orders);
+
+    @Override
+    @Transactional(readOnly = true)
+    Page<Member> findAll(Predicate predicate, Pageable pageable);
+
+    @Override
+    @Transactional(readOnly = true)
+    long count(Predicate predicate);
+
+    @Override
+    @Transactional(readOnly = true)
+    boolean exists(Predicate predicate);
 }
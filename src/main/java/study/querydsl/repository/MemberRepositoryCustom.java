@@ -13,4 +13,10 @@ public interface MemberRepositoryCustom {
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition memberSearchCondition, Pageable pageable);
 
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition memberSearchCondition, Pageable pageable);
+
+    /**
+     * 조인 없이 member_team_view 에서 조회한다. 결과는 search 와 같다.
+     * member.view.enabled=false 면 search 와 같은 조인 쿼리를 쓴다.
+     */
+    List<MemberTeamDto> searchView(MemberSearchCondition memberSearchCondition);
 }
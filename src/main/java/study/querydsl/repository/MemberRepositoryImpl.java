@@ -4,29 +4,44 @@ import com.querydsl.core.QueryResults;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.QMember;
+import study.querydsl.entity.QMemberTeamView;
 import study.querydsl.entity.QTeam;
+import study.querydsl.index.MemberBitmapIndex;
 
-import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.function.LongSupplier;
 
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final JPAQueryFactory jpaQueryFactory;
-
-    public MemberRepositoryImpl(EntityManager em) {
-        this.jpaQueryFactory = new JPAQueryFactory(em);
+    private final MemberBitmapIndex memberBitmapIndex;
+    private final boolean routingEnabled;
+    private final boolean viewEnabled;
+
+    public MemberRepositoryImpl(JPAQueryFactory jpaQueryFactory, ObjectProvider<MemberBitmapIndex> memberBitmapIndex,
+                                @Value("${member.datasource.routing.enabled:false}") boolean routingEnabled,
+                                @Value("${member.view.enabled:true}") boolean viewEnabled) {
+        this.jpaQueryFactory = jpaQueryFactory;
+        this.memberBitmapIndex = memberBitmapIndex.getIfAvailable();
+        this.routingEnabled = routingEnabled;
+        this.viewEnabled = viewEnabled;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<MemberTeamDto> search(MemberSearchCondition memberSearchCondition) {
         return jpaQueryFactory
                 .select(new QMemberTeamDto(
@@ -48,6 +63,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition memberSearchCondition, Pageable pageable) {
         QueryResults<MemberTeamDto> results = jpaQueryFactory
                 .select(new QMemberTeamDto(
@@ -75,6 +91,7 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition memberSearchCondition, Pageable pageable) {
 
         List<MemberTeamDto> content = jpaQueryFactory
@@ -118,9 +135,48 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 //                pageable,
 //                total);
         // 토탈 쿼리는 첫 페이지(토탈이 페이징보다 작을 경우)와 마지막 페이지인 경우에는 필요가없음. 최적화 가능
+        // 비트맵 인덱스가 켜져 있으면(member.search.bitmap-count) count 는 SQL 없이 구한다. (커밋된 데이터 기준)
+        LongSupplier total = useBitmapCount()
+                ? () -> memberBitmapIndex.count(memberSearchCondition)
+                : countQuery::fetchCount;
         return PageableExecutionUtils
-                .getPage(content, pageable,
-                        countQuery::fetchCount);
+                .getPage(content, pageable, total);
+    }
+
+    /**
+     * 비트맵은 primary 에 커밋된 데이터만 본다. 내용과 total 이 같은 데이터를 보도록
+     * 쓰기 트랜잭션에 참여한 경우(아직 커밋 안 된 변경이 보인다)와 replica 로 읽는 경우에는 SQL count 를 쓴다.
+     */
+    private boolean useBitmapCount() {
+        return memberBitmapIndex != null
+                && !routingEnabled
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MemberTeamDto> searchView(MemberSearchCondition memberSearchCondition) {
+        // member.view.enabled=false 면 member_team_view 를 갱신하지 않으므로 조인 쿼리로 대신한다.
+        if (!viewEnabled) {
+            return search(memberSearchCondition);
+        }
+        QMemberTeamView view = QMemberTeamView.memberTeamView;
+        return jpaQueryFactory
+                .select(new QMemberTeamDto(
+                        view.memberId,
+                        view.username,
+                        view.age,
+                        view.teamId,
+                        view.teamName
+                ))
+                .from(view)
+                .where(
+                        viewUsernameEq(memberSearchCondition.getUsername()),
+                        viewTeamNameEq(memberSearchCondition.getTeamName()),
+                        viewAgeGoe(memberSearchCondition.getAgeGoe()),
+                        viewAgeLoe(memberSearchCondition.getAgeLoe())
+                )
+                .fetch();
     }
 
     private BooleanExpression usernameEq(String username) {
@@ -138,4 +194,20 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
     private BooleanExpression ageLoe(Integer ageLoe) {
         return ageLoe != null ? QMember.member.age.loe(ageLoe) : null;
     }
+
+    private BooleanExpression viewUsernameEq(String username) {
+        return StringUtils.hasText(username) ? QMemberTeamView.memberTeamView.username.eq(username) : null;
+    }
+
+    private BooleanExpression viewTeamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? QMemberTeamView.memberTeamView.teamName.eq(teamName) : null;
+    }
+
+    private BooleanExpression viewAgeGoe(Integer ageGoe) {
+        return ageGoe != null ? QMemberTeamView.memberTeamView.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression viewAgeLoe(Integer ageLoe) {
+        return ageLoe != null ? QMemberTeamView.memberTeamView.age.loe(ageLoe) : null;
+    }
 }
@@ -0,0 +1,49 @@
+package study.querydsl.repository;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+
+@Repository
+public class MemberTeamViewRepository {
+
+    private final EntityManager em;
+
+    public MemberTeamViewRepository(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * 벌크 연산처럼 이벤트를 거치지 않은 변경 후 member_team_view 를 다시 만든다.
+     */
+    @Transactional
+    public void rebuild() {
+        em.flush();
+        em.createNativeQuery("delete from member_team_view").executeUpdate();
+        em.createNativeQuery("insert into member_team_view (member_id, username, age, team_id, team_name)" +
+                " select m.member_id, m.username, m.age, t.id, t.name" +
+                " from member m left join team t on m.team_id = t.id").executeUpdate();
+    }
+
+    /**
+     * 벌크 연산이 바꾼 회원의 행만 다시 만든다.
+     */
+    @Transactional
+    public void rebuild(Collection<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+        em.flush();
+        em.createNativeQuery("delete from member_team_view where member_id in (:memberIds)")
+                .setParameter("memberIds", memberIds)
+                .executeUpdate();
+        em.createNativeQuery("insert into member_team_view (member_id, username, age, team_id, team_name)" +
+                " select m.member_id, m.username, m.age, t.id, t.name" +
+                " from member m left join team t on m.team_id = t.id" +
+                " where m.member_id in (:memberIds)")
+                .setParameter("memberIds", memberIds)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.QTeamStatDto;
+import study.querydsl.dto.TeamStatDto;
+import study.querydsl.entity.QTeam;
+import study.querydsl.entity.QTeamStat;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public class TeamStatRepository {
+
+    private final EntityManager em;
+    private final JPAQueryFactory jpaQueryFactory;
+
+    public TeamStatRepository(EntityManager em, JPAQueryFactory jpaQueryFactory) {
+        this.em = em;
+        this.jpaQueryFactory = jpaQueryFactory;
+    }
+
+    /**
+     * 미리 집계된 team_stat 을 읽으므로 팀 수에 비례한다. (member 전체 group by 스캔 X)
+     */
+    @Transactional(readOnly = true)
+    public List<TeamStatDto> findTeamStats() {
+        return jpaQueryFactory
+                .select(new QTeamStatDto(
+                        QTeam.team.id,
+                        QTeam.team.name,
+                        QTeamStat.teamStat.memberCount,
+                        QTeamStat.teamStat.ageSum,
+                        QTeamStat.teamStat.ageMin,
+                        QTeamStat.teamStat.ageMax
+                ))
+                .from(QTeamStat.teamStat)
+                .join(QTeam.team).on(QTeam.team.id.eq(QTeamStat.teamStat.teamId))
+                .orderBy(QTeam.team.name.asc())
+                .fetch();
+    }
+
+    /**
+     * 벌크 연산처럼 이벤트를 거치지 않은 변경 후 전체 통계를 다시 만든다.
+     */
+    @Transactional
+    public void rebuild() {
+        em.flush();
+        em.createNativeQuery("delete from team_stat").executeUpdate();
+        em.createNativeQuery("insert into team_stat (team_id, member_count, age_sum, age_min, age_max)" +
+                " select t.id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)" +
+                " from team t left join member m on m.team_id = t.id" +
+                " group by t.id").executeUpdate();
+    }
+
+    /**
+     * 벌크 연산이 바꾼 팀의 통계만 다시 만든다.
+     */
+    @Transactional
+    public void rebuild(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+        em.flush();
+        em.createNativeQuery("delete from team_stat where team_id in (:teamIds)")
+                .setParameter("teamIds", teamIds)
+                .executeUpdate();
+        em.createNativeQuery("insert into team_stat (team_id, member_count, age_sum, age_min, age_max)" +
+                " select t.id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)" +
+                " from team t left join member m on m.team_id = t.id" +
+                " where t.id in (:teamIds)" +
+                " group by t.id")
+                .setParameter("teamIds", teamIds)
+                .executeUpdate();
+    }
+}
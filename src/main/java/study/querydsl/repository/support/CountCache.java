@@ -0,0 +1,89 @@
+package study.querydsl.repository.support;
+
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.event.EventListener;
+import study.querydsl.event.MemberBulkUpdatedEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link ExtendedQuerydslJpaRepository#findPage} 의 count 결과 캐시. (member.count-cache.enabled=true 일 때만)
+ * 커밋된 엔티티 변경(Hibernate post-commit 이벤트)과 벌크 연산({@link MemberBulkUpdatedEvent})마다 전부 비운다.
+ * 그 밖에 JDBC 로 직접 바꾼 데이터는 ttl 동안 낡은 count 가 보일 수 있다.
+ */
+public class CountCache implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentMap<String, long[]> counts = new ConcurrentHashMap<>();
+
+    public CountCache(long ttlMillis, int maxSize) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxSize = maxSize;
+    }
+
+    public long get(String key, LongSupplier loader) {
+        long now = System.nanoTime();
+        long[] cached = counts.get(key);
+        if (cached != null && now - cached[1] < ttlNanos) {
+            return cached[0];
+        }
+        long count = loader.getAsLong();
+        if (counts.size() >= maxSize) {
+            counts.clear();
+        }
+        counts.put(key, new long[]{count, now});
+        return count;
+    }
+
+    public void clear() {
+        counts.clear();
+    }
+
+    @EventListener
+    public void onBulkUpdate(MemberBulkUpdatedEvent event) {
+        clear();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        clear();
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        clear();
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        clear();
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+}
@@ -0,0 +1,131 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.PathBuilder;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.Querydsl;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 모든 Spring Data 리포지토리의 기반 클래스. (QuerydslApplication 의 repositoryBaseClass)
+ * findPage 의 count 는 {@link CountCache} 가 설정된 경우에만 캐시한다. (CountCacheConfig)
+ */
+@Transactional(readOnly = true)
+public class ExtendedQuerydslJpaRepository<T, ID> extends SimpleJpaRepository<T, ID>
+        implements ExtendedQuerydslPredicateExecutor<T> {
+
+    private static final Consumer<JPQLQuery<?>> NO_JOINS = query -> {
+    };
+
+    private final EntityManager em;
+    private final EntityPath<T> path;
+    private final Querydsl querydsl;
+    private CountCache countCache;
+
+    public ExtendedQuerydslJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager em) {
+        super(entityInformation, em);
+        this.em = em;
+        this.path = SimpleEntityPathResolver.INSTANCE.createPath(entityInformation.getJavaType());
+        this.querydsl = new Querydsl(em, new PathBuilder<>(path.getType(), path.getMetadata()));
+    }
+
+    public void setCountCache(CountCache countCache) {
+        this.countCache = countCache;
+    }
+
+    @Override
+    public <P> Slice<P> findSlice(Predicate predicate, Expression<P> projection, Pageable pageable) {
+        return findSlice(predicate, projection, NO_JOINS, pageable);
+    }
+
+    @Override
+    public <P> Slice<P> findSlice(Predicate predicate, Expression<P> projection, Consumer<JPQLQuery<?>> joins,
+                                  Pageable pageable) {
+        JPQLQuery<P> query = querydsl.applySorting(pageable.getSort(), select(projection, predicate, joins));
+        if (pageable.isPaged()) {
+            query.offset(pageable.getOffset()).limit(pageable.getPageSize() + 1L);
+        }
+        List<P> content = query.fetch();
+
+        boolean hasNext = pageable.isPaged() && content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content.remove(content.size() - 1);
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public <P> Page<P> findPage(Predicate predicate, Expression<P> projection, Consumer<JPQLQuery<?>> joins,
+                                Pageable pageable) {
+        List<P> content = querydsl.applyPagination(pageable, select(projection, predicate, joins)).fetch();
+
+        JPAQuery<T> countQuery = new JPAQuery<T>(em).select(path).from(path);
+        joins.accept(countQuery);
+        countQuery.where(predicate);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(countQuery, predicate));
+    }
+
+    private <P> JPQLQuery<P> select(Expression<P> projection, Predicate predicate, Consumer<JPQLQuery<?>> joins) {
+        JPAQuery<P> query = new JPAQuery<>(em).select(projection).from(path);
+        joins.accept(query);
+        return query.where(predicate);
+    }
+
+    private long count(JPAQuery<T> countQuery, Predicate predicate) {
+        if (countCache == null) {
+            return countQuery.fetchCount();
+        }
+        // JPQL 에는 파라미터 값이 없으므로 값이 보이는 predicate 문자열을 같이 키로 쓴다.
+        return countCache.get(countQuery + "|" + predicate, countQuery::fetchCount);
+    }
+
+    // 같은 트랜잭션 안에서도 바로 다시 세도록 커밋 이벤트를 기다리지 않고 비운다.
+    private void clearCountCache() {
+        if (countCache != null) {
+            countCache.clear();
+        }
+    }
+
+    @Override
+    @Transactional
+    public <S extends T> S save(S entity) {
+        clearCountCache();
+        return super.save(entity);
+    }
+
+    @Override
+    @Transactional
+    public void delete(T entity) {
+        clearCountCache();
+        super.delete(entity);
+    }
+
+    @Override
+    @Transactional
+    public void deleteInBatch(Iterable<T> entities) {
+        clearCountCache();
+        super.deleteInBatch(entities);
+    }
+
+    @Override
+    @Transactional
+    public void deleteAllInBatch() {
+        clearCountCache();
+        super.deleteAllInBatch();
+    }
+}
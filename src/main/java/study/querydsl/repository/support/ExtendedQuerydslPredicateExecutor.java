@@ -0,0 +1,31 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.JPQLQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.function.Consumer;
+
+/**
+ * QuerydslPredicateExecutor 에 projection 조회를 더한 것.
+ * joins 에서 projection 이 참조하는 조인을 건다. ex) q -> q.leftJoin(member.team, team)
+ */
+@NoRepositoryBean
+public interface ExtendedQuerydslPredicateExecutor<T> {
+
+    /**
+     * size + 1 건을 읽어 다음 페이지 여부만 판단한다. count 쿼리 없음.
+     */
+    <P> Slice<P> findSlice(Predicate predicate, Expression<P> projection, Pageable pageable);
+
+    <P> Slice<P> findSlice(Predicate predicate, Expression<P> projection, Consumer<JPQLQuery<?>> joins, Pageable pageable);
+
+    /**
+     * count 는 같은 조건이면 잠깐 캐시된 값을 쓴다. (save/delete 시 비움, 벌크/변경감지 수정은 TTL 만큼 늦게 반영)
+     */
+    <P> Page<P> findPage(Predicate predicate, Expression<P> projection, Consumer<JPQLQuery<?>> joins, Pageable pageable);
+}
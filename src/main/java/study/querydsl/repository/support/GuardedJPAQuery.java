@@ -0,0 +1,68 @@
+package study.querydsl.repository.support;
+
+import com.mysema.commons.lang.CloseableIterator;
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * createQuery 로 만들어지는 모든 JPA 쿼리(fetch, fetchCount, fetchResults 포함)에 {@link QueryGuard} 를 적용한다.
+ * max-rows 는 결과를 한 번에 올리는 fetch, fetchResults 에만 걸고, 넘치면 예외를 던진다.
+ * stream, iterate 는 한 건씩 읽으므로 걸지 않는다.
+ */
+public class GuardedJPAQuery<T> extends JPAQuery<T> {
+
+    private final QueryGuard guard;
+    private boolean streaming;
+
+    public GuardedJPAQuery(EntityManager em, QueryGuard guard) {
+        super(em);
+        this.guard = guard;
+    }
+
+    @Override
+    protected Query createQuery(QueryModifiers modifiers, boolean forCount) {
+        Query query = super.createQuery(modifiers, forCount);
+        guard.apply(query, modifiers != null ? modifiers.getLimitAsInteger() : null, !forCount && !streaming);
+        return query;
+    }
+
+    @Override
+    public List<T> fetch() {
+        List<T> result = super.fetch();
+        guard.checkRows(result.size());
+        return result;
+    }
+
+    @Override
+    public QueryResults<T> fetchResults() {
+        QueryResults<T> results = super.fetchResults();
+        guard.checkRows(results.getResults().size());
+        return results;
+    }
+
+    @Override
+    public CloseableIterator<T> iterate() {
+        streaming = true;
+        try {
+            return super.iterate();
+        } finally {
+            streaming = false;
+        }
+    }
+
+    @Override
+    public Stream<T> stream() {
+        streaming = true;
+        try {
+            return super.stream();
+        } finally {
+            streaming = false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import javax.persistence.EntityManager;
+
+/**
+ * select, selectFrom, from 모두 query() 를 거치므로 여기서 만든 쿼리는 전부 {@link QueryGuard} 를 탄다.
+ * update/delete 절은 그대로.
+ */
+public class GuardedJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+    private final QueryGuard guard;
+
+    public GuardedJPAQueryFactory(EntityManager em, QueryGuard guard) {
+        super(em);
+        this.em = em;
+        this.guard = guard;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new GuardedJPAQuery<Void>(em, guard);
+    }
+}
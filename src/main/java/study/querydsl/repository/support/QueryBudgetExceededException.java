@@ -0,0 +1,14 @@
+package study.querydsl.repository.support;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+/**
+ * EXPLAIN 으로 추정한 스캔 행 수가 member.query-guard.max-cost 를 넘어 실행하지 않은 쿼리.
+ * 웹 응답 코드는 MemberController 에서 정한다. (repository 는 HTTP 를 모른다)
+ */
+public class QueryBudgetExceededException extends InvalidDataAccessApiUsageException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
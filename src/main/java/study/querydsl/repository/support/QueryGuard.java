@@ -0,0 +1,166 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.persistence.Query;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link GuardedJPAQuery} 가 만드는 모든 JPA 쿼리에 거는 제한.
+ * <ul>
+ *     <li>timeout: javax.persistence.query.timeout 힌트</li>
+ *     <li>max-rows: limit 이 없거나 더 크면 max-rows + 1 건까지만 읽고, 넘치면 결과를 버리고 예외 (too_many_rows)</li>
+ *     <li>max-cost: H2 EXPLAIN 에서 tableScan 하는 테이블의 행 수 추정치 합이 넘으면 실행하지 않는다 (rejected)</li>
+ * </ul>
+ * EXPLAIN 결과(풀스캔 테이블 목록)는 JPQL 별로, 테이블 행 수는 잠깐 캐시한다.
+ */
+public class QueryGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryGuard.class);
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* (\\w+)\\.(\\w+)\\.tableScan \\*/");
+    private static final long ROW_COUNT_TTL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final int timeoutMillis;
+    private final int maxRows;
+    private final long maxCost;
+    private final Counter tooManyRows;
+    private final Counter rejected;
+    private final ConcurrentMap<String, List<String>> tableScans = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, long[]> rowCounts = new ConcurrentHashMap<>();
+
+    public QueryGuard(int timeoutMillis, int maxRows, long maxCost, MeterRegistry meterRegistry) {
+        this.timeoutMillis = timeoutMillis;
+        this.maxRows = maxRows;
+        this.maxCost = maxCost;
+        this.tooManyRows = meterRegistry == null ? null
+                : Counter.builder("querydsl.guard").tag("result", "too_many_rows").register(meterRegistry);
+        this.rejected = meterRegistry == null ? null
+                : Counter.builder("querydsl.guard").tag("result", "rejected").register(meterRegistry);
+    }
+
+    /**
+     * @param limitRows false 면 max-rows 를 걸지 않는다. (count, stream/iterate)
+     */
+    void apply(Query query, Integer limit, boolean limitRows) {
+        if (timeoutMillis > 0) {
+            query.setHint("javax.persistence.query.timeout", timeoutMillis);
+        }
+        if (maxCost > 0) {
+            // 공유 EntityManager 프록시는 트랜잭션 밖에서 unwrap 할 수 없으므로 쿼리가 속한 세션을 쓴다.
+            org.hibernate.query.Query<?> hibernateQuery = query.unwrap(org.hibernate.query.Query.class);
+            checkCost(hibernateQuery.getProducer(), hibernateQuery.getQueryString());
+        }
+        if (limitRows && maxRows > 0 && (limit == null || limit > maxRows)) {
+            // 하나 더 읽어서 넘쳤는지 안다.
+            query.setMaxResults(maxRows + 1);
+        }
+    }
+
+    /**
+     * apply 한 쿼리의 결과 행 수를 확인한다. 잘린 결과를 돌려주지 않도록 넘치면 예외.
+     */
+    void checkRows(int rows) {
+        if (maxRows > 0 && rows > maxRows) {
+            increment(tooManyRows);
+            throw new QueryBudgetExceededException("query returned more than " + maxRows + " rows"
+                    + " (member.query-guard.max-rows); add a limit or narrow the condition");
+        }
+    }
+
+    private void checkCost(SharedSessionContractImplementor session, String jpql) {
+        List<String> scans = tableScans.computeIfAbsent(jpql, key -> explain(session, key));
+        if (scans.isEmpty()) {
+            return;
+        }
+        long cost = 0;
+        for (String table : scans) {
+            cost += rowCount(session, table);
+        }
+        if (cost > maxCost) {
+            increment(rejected);
+            throw new QueryBudgetExceededException("estimated " + cost + " scanned rows exceeds " + maxCost
+                    + " (full scan of " + scans + "): " + jpql);
+        }
+    }
+
+    private List<String> explain(SharedSessionContractImplementor session, String jpql) {
+        HQLQueryPlan plan = session.getFactory().getQueryPlanCache()
+                .getHQLQueryPlan(jpql, false, Collections.emptyMap());
+        List<String> scans = new ArrayList<>();
+        try {
+            session.doWork(connection -> {
+                for (String sql : plan.getSqlStrings()) {
+                    Matcher matcher = TABLE_SCAN.matcher(explain(connection, sql));
+                    while (matcher.find()) {
+                        scans.add(matcher.group(1) + "." + matcher.group(2));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // H2 가 아니거나 EXPLAIN 할 수 없는 쿼리는 검사하지 않는다.
+            log.debug("explain failed: {}", jpql, e);
+            return Collections.emptyList();
+        }
+        return scans;
+    }
+
+    private String explain(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("explain " + sql)) {
+            // 플랜만 볼 것이므로 파라미터는 null
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setObject(i, null);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : "";
+            }
+        }
+    }
+
+    private long rowCount(SharedSessionContractImplementor session, String table) {
+        long now = System.nanoTime();
+        long[] cached = rowCounts.get(table);
+        if (cached != null && now - cached[1] < ROW_COUNT_TTL_NANOS) {
+            return cached[0];
+        }
+        long[] loaded = {0, now};
+        String[] names = table.split("\\.");
+        session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("select row_count_estimate from information_schema.tables" +
+                    " where table_schema = ? and table_name = ?")) {
+                ps.setString(1, names[0]);
+                ps.setString(2, names[1]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        loaded[0] = rs.getLong(1);
+                    }
+                }
+            }
+        });
+        rowCounts.put(table, loaded);
+        return loaded[0];
+    }
+
+    private void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+
+/**
+ * {@link study.querydsl.config.WindowFunctionH2Dialect} 에 등록한 윈도우 함수의 Querydsl 표현식.
+ * select / order by 에만 쓸 수 있다. (where, group by 불가)
+ * ex) select(member.username, WindowFunctions.rankDesc(member.team.id, member.age))
+ */
+public final class WindowFunctions {
+
+    private WindowFunctions() {
+    }
+
+    /**
+     * rank() over (partition by partitionBy order by orderBy)
+     */
+    public static NumberExpression<Long> rank(Expression<?> partitionBy, Expression<?> orderBy) {
+        return Expressions.numberTemplate(Long.class, "function('rank_over', {0}, {1})", partitionBy, orderBy);
+    }
+
+    /**
+     * rank() over (partition by partitionBy order by orderBy desc)
+     */
+    public static NumberExpression<Long> rankDesc(Expression<?> partitionBy, Expression<?> orderBy) {
+        return Expressions.numberTemplate(Long.class, "function('rank_desc_over', {0}, {1})", partitionBy, orderBy);
+    }
+
+    public static NumberExpression<Long> rowNumber(Expression<?> partitionBy, Expression<?> orderBy) {
+        return Expressions.numberTemplate(Long.class, "function('row_number_over', {0}, {1})", partitionBy, orderBy);
+    }
+
+    /**
+     * avg(value) over (partition by partitionBy)
+     */
+    public static NumberExpression<Double> avg(Expression<? extends Number> value, Expression<?> partitionBy) {
+        return Expressions.numberTemplate(Double.class, "function('avg_over', {0}, {1})", value, partitionBy);
+    }
+
+    public static NumberExpression<Double> avgOverAll(Expression<? extends Number> value) {
+        return Expressions.numberTemplate(Double.class, "function('avg_over_all', {0})", value);
+    }
+
+    public static <T extends Number & Comparable<?>> NumberExpression<T> max(Expression<T> value, Expression<?> partitionBy) {
+        return Expressions.numberTemplate(value.getType(), "function('max_over', {0}, {1})", value, partitionBy);
+    }
+
+    public static <T extends Number & Comparable<?>> NumberExpression<T> maxOverAll(Expression<T> value) {
+        return Expressions.numberTemplate(value.getType(), "function('max_over_all', {0})", value);
+    }
+
+    public static NumberExpression<Long> count(Expression<?> partitionBy) {
+        return Expressions.numberTemplate(Long.class, "function('count_over', {0})", partitionBy);
+    }
+
+    /**
+     * sum(value) over (partition by partitionBy order by orderBy) - 파티션 안 누적 합
+     */
+    public static NumberExpression<Long> runningSum(Expression<? extends Number> value, Expression<?> partitionBy,
+                                                    Expression<?> orderBy) {
+        return Expressions.numberTemplate(Long.class, "function('running_sum_over', {0}, {1}, {2})",
+                value, partitionBy, orderBy);
+    }
+}
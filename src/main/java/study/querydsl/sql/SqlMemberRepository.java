@@ -0,0 +1,112 @@
+package study.querydsl.sql;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.MappingProjection;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepositoryCustom;
+
+import java.util.List;
+
+/**
+ * querydsl-sql 로 조회하는 MemberRepositoryCustom. (member.search.mode=sql)
+ * JPQL 변환, 영속성 컨텍스트를 거치지 않고 ResultSet 을 바로 MemberTeamDto 로 만든다.
+ * JPA 로 저장한 변경은 flush 된 뒤에 보인다. SpringConnectionProvider 는 트랜잭션 안에서만 쓸 수 있다.
+ */
+@Transactional(readOnly = true)
+public class SqlMemberRepository implements MemberRepositoryCustom {
+
+    private static final SMember member = SMember.member;
+    private static final STeam team = STeam.team;
+
+    private static final MappingProjection<MemberTeamDto> MEMBER_TEAM_DTO =
+            new MappingProjection<MemberTeamDto>(MemberTeamDto.class,
+                    member.memberId, member.username, member.age, team.id, team.name) {
+                @Override
+                protected MemberTeamDto map(Tuple row) {
+                    Integer age = row.get(member.age);
+                    return new MemberTeamDto(row.get(member.memberId), row.get(member.username),
+                            age == null ? 0 : age, row.get(team.id), row.get(team.name));
+                }
+            };
+
+    private final SQLQueryFactory sqlQueryFactory;
+
+    public SqlMemberRepository(SQLQueryFactory sqlQueryFactory) {
+        this.sqlQueryFactory = sqlQueryFactory;
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition memberSearchCondition) {
+        return query(memberSearchCondition).fetch();
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition memberSearchCondition, Pageable pageable) {
+        return searchPageComplex(memberSearchCondition, pageable);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition memberSearchCondition, Pageable pageable) {
+        List<MemberTeamDto> content = query(memberSearchCondition)
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        SQLQuery<Long> countQuery = sqlQueryFactory
+                .select(member.memberId.count())
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(conditions(memberSearchCondition));
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    @Override
+    public List<MemberTeamDto> searchView(MemberSearchCondition memberSearchCondition) {
+        return search(memberSearchCondition);
+    }
+
+    private SQLQuery<MemberTeamDto> query(MemberSearchCondition memberSearchCondition) {
+        return sqlQueryFactory
+                .select(MEMBER_TEAM_DTO)
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(conditions(memberSearchCondition));
+    }
+
+    /**
+     * MemberRepositoryImpl 과 같은 검색 조건. (MemberStreamWriter 도 사용)
+     */
+    public static BooleanExpression[] conditions(MemberSearchCondition memberSearchCondition) {
+        return new BooleanExpression[]{
+                usernameEq(memberSearchCondition.getUsername()),
+                teamNameEq(memberSearchCondition.getTeamName()),
+                ageGoe(memberSearchCondition.getAgeGoe()),
+                ageLoe(memberSearchCondition.getAgeLoe())
+        };
+    }
+
+    private static BooleanExpression usernameEq(String username) {
+        return StringUtils.hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private static BooleanExpression teamNameEq(String teamName) {
+        return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private static BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private static BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
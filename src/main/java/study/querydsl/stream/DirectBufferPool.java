@@ -0,0 +1,46 @@
+package study.querydsl.stream;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 고정 개수의 direct ByteBuffer 풀. 버퍼 수가 곧 동시 스트리밍 수 상한이다.
+ * 다 쓰이고 있으면 timeout 만큼 기다린 뒤 실패한다.
+ */
+public class DirectBufferPool {
+
+    private final BlockingQueue<ByteBuffer> buffers;
+    private final long acquireTimeoutMillis;
+
+    public DirectBufferPool(int count, int bufferSize, long acquireTimeoutMillis) {
+        this.buffers = new ArrayBlockingQueue<>(count);
+        for (int i = 0; i < count; i++) {
+            buffers.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public ByteBuffer acquire() {
+        try {
+            ByteBuffer buffer = buffers.poll(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            if (buffer == null) {
+                throw new StreamBusyException("no stream buffer available in " + acquireTimeoutMillis + "ms");
+            }
+            buffer.clear();
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StreamBusyException("interrupted while waiting for a stream buffer");
+        }
+    }
+
+    public void release(ByteBuffer buffer) {
+        buffers.offer(buffer);
+    }
+
+    public int available() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,132 @@
+package study.querydsl.stream;
+
+import org.apache.catalina.connector.CoyoteOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * direct ByteBuffer 에 JSON 을 UTF-8 로 바로 쓰고 가득 차면 출력으로 내보낸다. 행마다 할당이 없다.
+ * 톰캣 출력이면 CoyoteOutputStream.write(ByteBuffer) 로, 아니면 채널로 내보낸다.
+ * (Servlet API 로는 소켓까지 zero-copy 는 안 되고, 중간 byte[] 복사를 없앤 것)
+ * 블로킹 쓰기라 클라이언트가 느리면 여기서 멈추고, 그동안 커서도 더 읽지 않는다.
+ */
+class DirectJsonWriter {
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer buffer;
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+    private final byte[] digits = new byte[20];
+
+    DirectJsonWriter(ByteBuffer buffer, OutputStream out) {
+        this.buffer = buffer;
+        this.out = out;
+        this.channel = out instanceof CoyoteOutputStream ? null : Channels.newChannel(out);
+    }
+
+    void writeRaw(byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            put(b);
+        }
+    }
+
+    void writeByte(char c) throws IOException {
+        put((byte) c);
+    }
+
+    void writeNull() throws IOException {
+        writeRaw(NULL);
+    }
+
+    void writeLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = pos; i < digits.length; i++) {
+            put(digits[i]);
+        }
+    }
+
+    void writeString(String value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put((byte) '\\');
+                put((byte) c);
+            } else if (c < 0x20) {
+                put((byte) '\\');
+                put((byte) 'u');
+                put((byte) '0');
+                put((byte) '0');
+                put(HEX[c >> 4]);
+                put(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                put((byte) c);
+            } else if (c < 0x800) {
+                put((byte) (0xC0 | (c >> 6)));
+                put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, value.charAt(++i));
+                put((byte) (0xF0 | (cp >> 18)));
+                put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                put((byte) (0x80 | (cp & 0x3F)));
+            } else {
+                put((byte) (0xE0 | (c >> 12)));
+                put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        put((byte) '"');
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(b);
+    }
+
+    /**
+     * 버퍼를 출력으로 내보낸다. (청크 단위)
+     */
+    void drain() throws IOException {
+        buffer.flip();
+        if (channel == null) {
+            ((CoyoteOutputStream) out).write(buffer);
+        } else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+
+    void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+}
@@ -0,0 +1,58 @@
+package study.querydsl.stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * search 결과를 keyset 페이지 단위로 읽어 Flux 로 내보낸다.
+ * 구독자가 요청(request(n))한 만큼만 다음 페이지를 읽고, 페이지마다 readOnly 트랜잭션을 따로 쓰므로
+ * 느린 구독자가 커넥션을 잡고 있지 않는다. 조회는 boundedElastic 스레드에서 한다.
+ */
+@Component
+public class MemberFluxSearch {
+
+    private static final long DONE = -1L;
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final int pageSize;
+    private final Scheduler scheduler = Schedulers.boundedElastic();
+
+    public MemberFluxSearch(MemberJpaRepository memberJpaRepository,
+                            @Value("${member.flux.page-size:500}") int pageSize) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.pageSize = pageSize;
+    }
+
+    public Flux<MemberTeamDto> search(MemberSearchCondition condition) {
+        return pages(condition)
+                .subscribeOn(scheduler)
+                // prefetch 1: 받은 페이지를 다 내보낸 뒤에야 다음 페이지를 요청한다.
+                .flatMapIterable(Function.identity(), 1);
+    }
+
+    // 상태는 마지막 memberId. 덜 찬 페이지가 오면 DONE
+    private Flux<List<MemberTeamDto>> pages(MemberSearchCondition condition) {
+        return Flux.<List<MemberTeamDto>, Long>generate(() -> 0L, (lastMemberId, sink) -> {
+            if (lastMemberId == DONE) {
+                sink.complete();
+                return DONE;
+            }
+            List<MemberTeamDto> page = memberJpaRepository.searchAfter(condition, lastMemberId, pageSize);
+            if (page.isEmpty()) {
+                sink.complete();
+                return DONE;
+            }
+            sink.next(page);
+            return page.size() < pageSize ? DONE : page.get(page.size() - 1).getMemberId();
+        });
+    }
+}
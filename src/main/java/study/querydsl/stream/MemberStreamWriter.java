@@ -0,0 +1,124 @@
+package study.querydsl.stream;
+
+import com.querydsl.sql.SQLBindings;
+import com.querydsl.sql.SQLQueryFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.sql.SMember;
+import study.querydsl.sql.STeam;
+import study.querydsl.sql.SqlMemberRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * search 결과를 JDBC 커서에서 바로 MemberTeamDto 모양의 JSON 배열로 쓴다. 엔티티, DTO, Jackson 을 거치지 않는다.
+ * 커서는 fetch-size 만큼씩 읽고, 버퍼(member.stream.buffer-size)가 찰 때마다 응답으로 내보낸다.
+ */
+@Component
+public class MemberStreamWriter {
+
+    private static final byte[] MEMBER_ID = "{\"memberId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] USERNAME = ",\"username\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AGE = ",\"age\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TEAM_ID = ",\"teamId\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TEAM_NAME = ",\"teamName\":".getBytes(StandardCharsets.US_ASCII);
+
+    private static final SMember member = SMember.member;
+    private static final STeam team = STeam.team;
+
+    private final SQLQueryFactory sqlQueryFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DirectBufferPool bufferPool;
+    private final int fetchSize;
+
+    public MemberStreamWriter(SQLQueryFactory sqlQueryFactory, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${member.stream.buffers:16}") int buffers,
+                              @Value("${member.stream.buffer-size:65536}") int bufferSize,
+                              @Value("${member.stream.acquire-timeout-ms:1000}") long acquireTimeoutMillis,
+                              @Value("${member.stream.fetch-size:500}") int fetchSize) {
+        this.sqlQueryFactory = sqlQueryFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.bufferPool = new DirectBufferPool(buffers, bufferSize, acquireTimeoutMillis);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return 쓴 행 수
+     */
+    public long write(MemberSearchCondition condition, OutputStream out) throws IOException {
+        SQLBindings sql = sqlQueryFactory
+                .select(member.memberId, member.username, member.age, team.id, team.name)
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(SqlMemberRepository.conditions(condition))
+                .orderBy(member.memberId.asc())
+                .getSQL();
+
+        ByteBuffer buffer = bufferPool.acquire();
+        try {
+            DirectJsonWriter writer = new DirectJsonWriter(buffer, out);
+            long[] rows = {0};
+            writer.writeByte('[');
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.getSQL(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                int index = 1;
+                for (Object binding : sql.getNullFriendlyBindings()) {
+                    ps.setObject(index++, binding);
+                }
+                return ps;
+            }, rs -> {
+                try {
+                    if (rows[0]++ > 0) {
+                        writer.writeByte(',');
+                    }
+                    writeRow(writer, rs);
+                } catch (IOException e) {
+                    // 클라이언트가 끊으면 커서도 바로 닫는다.
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            writer.writeByte(']');
+            writer.flush();
+            return rows[0];
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            bufferPool.release(buffer);
+        }
+    }
+
+    private void writeRow(DirectJsonWriter writer, ResultSet rs) throws IOException, SQLException {
+        writer.writeRaw(MEMBER_ID);
+        writer.writeLong(rs.getLong(1));
+        writer.writeRaw(USERNAME);
+        writer.writeString(rs.getString(2));
+        writer.writeRaw(AGE);
+        writer.writeLong(rs.getInt(3));
+        writer.writeRaw(TEAM_ID);
+        long teamId = rs.getLong(4);
+        if (rs.wasNull()) {
+            writer.writeNull();
+        } else {
+            writer.writeLong(teamId);
+        }
+        writer.writeRaw(TEAM_NAME);
+        writer.writeString(rs.getString(5));
+        writer.writeByte('}');
+    }
+}
@@ -0,0 +1,12 @@
+package study.querydsl.stream;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StreamBusyException extends RuntimeException {
+
+    public StreamBusyException(String message) {
+        super(message);
+    }
+}
@@ -507,12 +507,12 @@ public class QuerydslBasic {
         // 영속성 컨텍스트 상태에 주의해야함.
         // 1차캐시를 무시하고 db에 바로 부어버림. 연산 후에 영속성 컨텍스트랑 db랑 상태가 다름
         long count = jpaQueryFactory.update(QMember.member)
-                .set(QMember.member.username, "비회원")
+                .set(QMember.member.username, QMember.member.username.prepend("비회원-")) // username 은 유니크
                 .where(QMember.member.age.lt(28))
                 .execute();
 
-        // member1 = 10 -> DB 비회원
-        // member2 = 20 -> DB 비회원
+        // member1 = 10 -> DB 비회원-member1
+        // member2 = 20 -> DB 비회원-member2
         // member3 = 30 -> DB member3
         // member4 = 40 -> DB member4
 
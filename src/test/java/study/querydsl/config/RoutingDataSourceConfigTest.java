@@ -0,0 +1,72 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 메모리 H2 두 개로 primary / replica 를 흉내낸다. database() 로 실제로 붙은 DB 를 확인.
+ */
+@SpringBootTest(properties = {
+        "member.datasource.routing.enabled=true",
+        "member.datasource.primary.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "member.datasource.replicas[0].url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1"
+})
+class RoutingDataSourceConfigTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyGoesToReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        String database = readOnly.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+
+        assertThat(database).isEqualTo("REPLICA");
+    }
+
+    @Test
+    void readOnlyReadsReplicatedData(@TempDir Path dir) {
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        write.executeWithoutResult(status ->
+                jdbcTemplate.update("insert into team (id, name) values (?, ?)", 1L, "teamA"));
+
+        // 실제 replica 는 DB 복제로 스키마와 데이터를 받는다. 여기서는 primary 스크립트를 replica 에 돌려 흉내낸다.
+        String script = dir.resolve("primary.sql").toString();
+        jdbcTemplate.execute("script drop to '" + script + "'");
+        new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:replica", "sa", ""))
+                .execute("runscript from '" + script + "'");
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        String name = readOnly.execute(status ->
+                jdbcTemplate.queryForObject("select name from team where id = ?", String.class, 1L));
+
+        assertThat(name).isEqualTo("teamA");
+    }
+
+    @Test
+    void writeGoesToPrimary() {
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+
+        String database = write.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+
+        assertThat(database).isEqualTo("PRIMARY");
+        // 트랜잭션 밖(DDL 등)도 primary
+        assertThat(jdbcTemplate.queryForObject("select database()", String.class)).isEqualTo("PRIMARY");
+    }
+}
@@ -1,5 +1,6 @@
 package study.querydsl.entity;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -8,6 +9,8 @@ import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 @Transactional
 class MemberTest {
@@ -46,4 +49,39 @@ class MemberTest {
             System.out.println("-> member.team = " + m.getTeam().getName());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void changeTeamDoesNotLoadMembers() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamB);
+        em.persist(member1);
+        em.persist(member2);
+
+        em.flush();
+        em.clear();
+
+        Member findMember = em.find(Member.class, member1.getId());
+        Team findTeamA = em.find(Team.class, teamA.getId());
+        Team findTeamB = em.find(Team.class, teamB.getId());
+
+        findMember.changeTeam(findTeamB);
+
+        assertThat(Hibernate.isInitialized(findTeamA.getMembers())).isFalse();
+        assertThat(Hibernate.isInitialized(findTeamB.getMembers())).isFalse();
+        // extra lazy 라 size 도 count 쿼리로 처리 (쌓여있는 add 는 flush 후 count)
+        assertThat(findTeamB.getMembers().size()).isEqualTo(2);
+        assertThat(Hibernate.isInitialized(findTeamB.getMembers())).isFalse();
+
+        em.flush();
+        em.clear();
+
+        assertThat(em.find(Team.class, teamB.getId()).getMembers()).extracting("username")
+                .containsExactlyInAnyOrder("member1", "member2");
+        assertThat(em.find(Team.class, teamA.getId()).getMembers()).isEmpty();
+    }
+}
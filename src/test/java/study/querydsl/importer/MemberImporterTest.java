@@ -0,0 +1,121 @@
+package study.querydsl.importer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamStatRepository;
+
+import javax.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "member.import.batch-size=2")
+@Transactional
+class MemberImporterTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberImporter memberImporter;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private TeamStatRepository teamStatRepository;
+
+    @Test
+    void csvImportIsIdempotent(@TempDir Path dir) throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 99, teamA));
+        em.flush();
+
+        Path file = dir.resolve("members.csv");
+        Files.write(file, Arrays.asList(
+                "username,age,teamName",
+                "member1,10,teamA",
+                "member2,20,teamA",
+                "member3,30,teamB",
+                "member4,40,"), StandardCharsets.UTF_8);
+
+        ImportResult first = memberImporter.importFile(file);
+        ImportResult second = memberImporter.importFile(file);
+
+        assertThat(first.getRows()).isEqualTo(4);
+        assertThat(first.getBatches()).isEqualTo(2);
+        assertThat(first.getCreatedTeams()).isEqualTo(1);
+        assertThat(second.getCreatedTeams()).isZero();
+
+        em.clear();
+        assertThat(memberRepository.count()).isEqualTo(4);
+        assertThat(memberRepository.search(new MemberSearchCondition()))
+                .extracting("username", "age", "teamName")
+                .containsExactlyInAnyOrder(
+                        tuple("member1", 10, "teamA"),
+                        tuple("member2", 20, "teamA"),
+                        tuple("member3", 30, "teamB"),
+                        tuple("member4", 40, null));
+    }
+
+    @Test
+    void ndjsonImportTest(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("members.ndjson");
+        Files.write(file, Arrays.asList(
+                "{\"username\":\"member1\",\"age\":10,\"teamName\":\"teamA\"}",
+                "",
+                "{\"username\":\"member2\",\"age\":20,\"teamName\":null}",
+                "{\"username\":\"member1\",\"age\":11,\"teamName\":\"teamA\"}"), StandardCharsets.UTF_8);
+
+        ImportResult result = memberImporter.importFile(file);
+        memberImporter.importFile(file);
+
+        assertThat(result.getRows()).isEqualTo(3);
+        em.clear();
+        assertThat(memberRepository.findByUsername("member1")).extracting("age").containsExactly(11);
+        assertThat(memberRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void quotedCsvIsRejected(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("members.csv");
+        Files.write(file, Arrays.asList(
+                "username,age,teamName",
+                "\"kim, minsu\",10,teamA"), StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> memberImporter.importFile(file))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(memberRepository.count()).isZero();
+    }
+
+    @Test
+    void failedImportStillPublishesCommittedBatches(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("members.ndjson");
+        Files.write(file, Arrays.asList(
+                "{\"username\":\"member1\",\"age\":10,\"teamName\":\"teamA\"}",
+                "{\"username\":\"member2\",\"age\":20,\"teamName\":\"teamA\"}",
+                "{\"username\":\"member3\",\"teamName\":\"teamA\"}"), StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> memberImporter.importFile(file))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // 첫 배치(2건)는 남고, 이벤트로 team_stat 도 맞춰진다.
+        assertThat(memberRepository.count()).isEqualTo(2);
+        assertThat(teamStatRepository.findTeamStats())
+                .extracting("teamName", "memberCount")
+                .contains(tuple("teamA", 2L));
+    }
+}
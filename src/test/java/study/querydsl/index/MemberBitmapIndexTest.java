@@ -0,0 +1,82 @@
+package study.querydsl.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberBitmapIndexTest {
+
+    private MemberBitmapIndex index;
+
+    @BeforeEach
+    void before() {
+        index = new MemberBitmapIndex();
+        index.putTeam(1L, "teamA");
+        index.putTeam(2L, "teamB");
+
+        index.putMember(3L, "member1", 10, 1L);
+        index.putMember(4L, "member2", 20, 1L);
+        index.putMember(5L, "member3", 30, 2L);
+        index.putMember(6L, "member4", 40, 2L);
+    }
+
+    @Test
+    void intersectionTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        assertThat(index.match(condition).toArray()).containsExactly(6);
+        assertThat(index.count(condition)).isEqualTo(1);
+    }
+
+    @Test
+    void countTest() {
+        assertThat(index.count(new MemberSearchCondition())).isEqualTo(4);
+
+        MemberSearchCondition teamA = new MemberSearchCondition();
+        teamA.setTeamName("teamA");
+        assertThat(index.count(teamA)).isEqualTo(2);
+
+        MemberSearchCondition username = new MemberSearchCondition();
+        username.setUsername("member3");
+        username.setAgeLoe(30);
+        assertThat(index.count(username)).isEqualTo(1);
+
+        MemberSearchCondition empty = new MemberSearchCondition();
+        empty.setAgeGoe(50);
+        assertThat(index.count(empty)).isZero();
+    }
+
+    @Test
+    void updateAndRemoveTest() {
+        index.putMember(3L, "member1", 45, 2L);
+        index.removeMember(5L);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(40);
+        assertThat(index.match(condition).toArray()).containsExactly(3, 6);
+
+        MemberSearchCondition teamA = new MemberSearchCondition();
+        teamA.setTeamName("teamA");
+        assertThat(index.count(teamA)).isEqualTo(1);
+    }
+
+    @Test
+    void longIdTest() {
+        long big = Integer.MAX_VALUE + 10L;
+        index.putMember(big, "member5", 40, 2L);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(40);
+        assertThat(index.match(condition).toArray()).containsExactly(6L, big);
+
+        index.removeMember(big);
+        assertThat(index.count(condition)).isEqualTo(1);
+    }
+}
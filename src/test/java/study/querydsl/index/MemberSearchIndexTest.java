@@ -0,0 +1,103 @@
+package study.querydsl.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MemberSearchIndexTest {
+
+    private MemberSearchIndex index;
+
+    @BeforeEach
+    void before() {
+        index = new MemberSearchIndex();
+        index.putTeam(1L, "teamA");
+        index.putTeam(2L, "teamB");
+
+        index.putMember(3L, "member1", 10, 1L);
+        index.putMember(4L, "member2", 20, 1L);
+        index.putMember(5L, "member3", 30, 2L);
+        index.putMember(6L, "member4", 40, 2L);
+    }
+
+    @Test
+    void searchTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(35);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        assertThat(index.search(condition))
+                .extracting("memberId", "username", "age", "teamId", "teamName")
+                .containsExactly(tuple(6L, "member4", 40, 2L, "teamB"));
+    }
+
+    @Test
+    void ageRangeTest() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(30);
+
+        assertThat(index.search(condition)).extracting("username").containsExactly("member2", "member3");
+        assertThat(index.count(condition)).isEqualTo(2);
+    }
+
+    @Test
+    void updateAndRemoveTest() {
+        index.putMember(3L, "member1", 50, 2L);
+        index.removeMember(6L);
+        index.putTeam(2L, "teamC");
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamC");
+        assertThat(index.search(condition)).extracting("username").containsExactly("member1", "member3");
+
+        MemberSearchCondition byName = new MemberSearchCondition();
+        byName.setUsername("member4");
+        assertThat(index.search(byName)).isEmpty();
+
+        // 삭제된 slot 재사용
+        index.putMember(7L, "member5", 5, null);
+        assertThat(index.search(new MemberSearchCondition()))
+                .extracting("username").containsExactly("member1", "member2", "member3", "member5");
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void ageAndNameChangeTest() {
+        index.putMember(4L, "member1", 35, 1L);
+        index.putMember(5L, "member1", 35, 2L);
+        index.removeMember(3L);
+
+        MemberSearchCondition byAge = new MemberSearchCondition();
+        byAge.setAgeGoe(20);
+        byAge.setAgeLoe(35);
+        assertThat(index.search(byAge)).extracting("memberId").containsExactly(4L, 5L);
+
+        MemberSearchCondition byName = new MemberSearchCondition();
+        byName.setUsername("member1");
+        assertThat(index.search(byName)).extracting("memberId").containsExactly(4L, 5L);
+
+        // 뒤집힌 범위
+        MemberSearchCondition empty = new MemberSearchCondition();
+        empty.setAgeGoe(40);
+        empty.setAgeLoe(10);
+        assertThat(index.search(empty)).isEmpty();
+    }
+
+    @Test
+    void pagingTest() {
+        assertThat(index.search(new MemberSearchCondition(), 1, 2))
+                .extracting("username").containsExactly("member2", "member3");
+
+        Page<MemberTeamDto> page = index.searchPage(new MemberSearchCondition(), PageRequest.of(1, 3));
+        assertThat(page.getContent()).extracting("username").containsExactly("member4");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.index;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MemberSnapshotFileTest {
+
+    @Test
+    void writeAndReadTest(@TempDir Path dir) throws Exception {
+        Path path = dir.resolve("member.snapshot");
+
+        MemberSnapshotFile.Header written = MemberSnapshotFile.write(path, 7L, 42L, index -> {
+            index.putTeam(1L, "teamA");
+            index.putTeam(2L, "팀B");
+            index.putMember(3L, "member1", 10, 1L);
+            index.putMember(4L, "회원2", 20, 2L);
+            index.putMember(5L, "member3", 30, null);
+        });
+        assertThat(written.getMemberCount()).isEqualTo(3);
+        assertThat(written.getMaxMemberId()).isEqualTo(5L);
+
+        MemberSearchIndex index = new MemberSearchIndex();
+        MemberSnapshotFile.Header read = MemberSnapshotFile.read(path, Collections.singletonList(index));
+
+        assertThat(read.getTeamCount()).isEqualTo(2);
+        assertThat(read.getMemberChecksum()).isEqualTo(7L);
+        assertThat(read.getTeamChecksum()).isEqualTo(42L);
+        assertThat(index.search(new MemberSearchCondition()))
+                .extracting("memberId", "username", "age", "teamId", "teamName")
+                .containsExactly(
+                        tuple(3L, "member1", 10, 1L, "teamA"),
+                        tuple(4L, "회원2", 20, 2L, "팀B"),
+                        tuple(5L, "member3", 30, null, null));
+    }
+}
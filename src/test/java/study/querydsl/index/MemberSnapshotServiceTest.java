@@ -0,0 +1,113 @@
+package study.querydsl.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스냅샷은 커밋된 데이터와 비교하므로 @Transactional 없이 넣고 끝나면 지운다.
+ */
+@SpringBootTest(properties = {"member.snapshot.enabled=true",
+        "member.snapshot.path=${java.io.tmpdir}/member-snapshot-service-test.snapshot"})
+class MemberSnapshotServiceTest {
+
+    @Autowired
+    private MemberSnapshotService memberSnapshotService;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${member.snapshot.path}")
+    private String path;
+
+    private Long teamId;
+    private Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            Member member = new Member("member1", 10, team);
+            em.persist(member);
+            em.persist(new Member("member2", 20, team));
+            teamId = team.getId();
+            memberId = member.getId();
+        });
+        memberSnapshotService.write();
+    }
+
+    @AfterEach
+    void cleanUp() throws Exception {
+        memberRepository.deleteAll();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.remove(em.find(Team.class, teamId));
+            em.createNativeQuery("delete from team_stat where team_id = ?").setParameter(1, teamId).executeUpdate();
+        });
+        Files.deleteIfExists(Paths.get(path));
+    }
+
+    @Test
+    void restoreUnchanged() {
+        assertThat(memberSnapshotService.restore(indexes())).isTrue();
+    }
+
+    @Test
+    void staleAfterMemberUpdate() {
+        // 회원 수, 최대 id 는 그대로
+        memberJpaRepository.updateWithRetry(memberId, member -> member.setUsername("renamed"));
+
+        assertThat(memberSnapshotService.restore(indexes())).isFalse();
+    }
+
+    @Test
+    void staleAfterOffsettingVersionChanges() {
+        // version 합은 그대로
+        jdbcTemplate.update("update member set version = version + 1 where member_id = ?", memberId);
+        jdbcTemplate.update("update member set version = version - 1 where member_id <> ?", memberId);
+
+        assertThat(memberSnapshotService.restore(indexes())).isFalse();
+    }
+
+    @Test
+    void staleAfterTeamRename() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.find(Team.class, teamId).setName("teamB"));
+
+        assertThat(memberSnapshotService.restore(indexes())).isFalse();
+    }
+
+    private List<MemberIndex> indexes() {
+        return Collections.singletonList(new MemberSearchIndex());
+    }
+}
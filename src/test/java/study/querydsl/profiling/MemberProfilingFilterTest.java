@@ -0,0 +1,73 @@
+package study.querydsl.profiling;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 요청 스레드에서 커넥션을 얻어야 SQL 이 세어지므로 @Transactional 없이 돌리고 끝나면 지운다.
+ * QueryGuard 의 EXPLAIN 도 세어지므로 max-cost 검사는 끈다.
+ */
+@SpringBootTest(properties = {"member.profiling.debug-header=true", "member.query-guard.max-cost=0"})
+@AutoConfigureMockMvc
+class MemberProfilingFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            memberRepository.save(new Member("member" + i, i));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void profileHeaderAndMetrics() throws Exception {
+        String header = mockMvc.perform(get("/v1/members"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(MemberProfilingFilter.HEADER);
+
+        assertThat(header).contains("sql=1;rows=3");
+        assertThat(header).containsPattern("alloc=[1-9]\\d*");
+
+        DistributionSummary rows = meterRegistry.get("member.request.sql.rows").tag("uri", "/v1/members").summary();
+        assertThat(rows.count()).isEqualTo(1);
+        assertThat(rows.totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("member.request.allocated").tag("uri", "/v1/members").summary().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void pageQueryCountsCountStatement() throws Exception {
+        String header = mockMvc.perform(get("/v2/members").param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(MemberProfilingFilter.HEADER);
+
+        // content + count
+        assertThat(header).contains("sql=2;rows=3");
+    }
+}
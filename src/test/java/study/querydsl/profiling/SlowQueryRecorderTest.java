@@ -0,0 +1,69 @@
+package study.querydsl.profiling;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// threshold 0: 모든 SQL 이 느린 쿼리로 남는다.
+@SpringBootTest(properties = {
+        "member.slow-query.enabled=true",
+        "member.slow-query.params=true",
+        "member.slow-query.threshold-ms=0"
+})
+@Transactional
+class SlowQueryRecorderTest {
+
+    @Autowired
+    private SlowQueryRecorder slowQueryRecorder;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    void before() {
+        slowQueryRecorder.clear();
+    }
+
+    @Test
+    void recordWithParamsOriginAndPlan() throws Exception {
+        memberJpaRepository.findByUsername_querydsl("member1");
+
+        List<SlowQuery> recent = slowQueryRecorder.recent();
+        assertThat(recent).isNotEmpty();
+        SlowQuery slowQuery = recent.get(0);
+        assertThat(slowQuery.getSql()).contains("username=?");
+        assertThat(slowQuery.getParams()).containsExactly("member1");
+        assertThat(slowQuery.getOrigin()).isEqualTo("MemberJpaRepository.findByUsername_querydsl");
+
+        // EXPLAIN 은 비동기
+        for (int i = 0; i < 50 && slowQuery.getPlan() == null; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(slowQuery.getPlan()).containsIgnoringCase("member");
+    }
+
+    @Test
+    void ringBufferKeepsLatest() {
+        SlowQueryRecorder recorder = new SlowQueryRecorder(0, 2, false);
+        recorder.record("select 1", Collections.emptyList(), 1, null);
+        recorder.record("select 2", Collections.emptyList(), 1, null);
+        recorder.record("select 3", Collections.emptyList(), 1, null);
+
+        assertThat(recorder.recent()).extracting("sql").containsExactly("select 3", "select 2");
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThatThrownBy(() -> new SlowQueryRecorder(0, 0, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.AgeAggregateDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class MemberAggregateQueriesTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberAggregateQueries memberAggregateQueries;
+
+    @BeforeEach
+    void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        // findOldestPerTeam 등은 querydsl-sql 이라 JPA 자동 flush 대상이 아니다.
+        em.flush();
+    }
+
+    @Test
+    void ageAggregates() {
+        AgeAggregateDto aggregates = memberAggregateQueries.ageAggregates();
+
+        assertThat(aggregates.getCount()).isEqualTo(4);
+        assertThat(aggregates.getAgeMin()).isEqualTo(10);
+        assertThat(aggregates.getAgeMax()).isEqualTo(40);
+        assertThat(aggregates.getAgeAvg()).isEqualTo(25.0);
+    }
+
+    @Test
+    void sameResultsAsSubQuery() {
+        assertThat(memberAggregateQueries.findOldest()).extracting("age").containsExactly(40);
+        assertThat(memberAggregateQueries.findAgeGoeAverage()).extracting("age").containsExactlyInAnyOrder(30, 40);
+        assertThat(memberAggregateQueries.findUserDtosWithAgeMax()).extracting("age").containsOnly(40);
+        assertThat(memberAggregateQueries.findUsernamesWithAgeAvg()).extracting("ageAvg").containsOnly(25.0);
+    }
+
+    @Test
+    void findAgeGoeTeamAverage() {
+        assertThat(memberAggregateQueries.findAgeGoeTeamAverage()).extracting("username")
+                .containsExactlyInAnyOrder("member2", "member4");
+    }
+
+    @Test
+    void windowFunctions() {
+        assertThat(memberAggregateQueries.findTeamAgeRanks())
+                .extracting("username", "ageRank", "teamAgeAvg", "teamAgeMax")
+                .containsExactly(
+                        tuple("member2", 1L, 15.0, 20),
+                        tuple("member1", 2L, 15.0, 20),
+                        tuple("member4", 1L, 35.0, 40),
+                        tuple("member3", 2L, 35.0, 40));
+
+        assertThat(memberAggregateQueries.findOldestPerTeam()).extracting("username")
+                .containsExactly("member2", "member4");
+        assertThat(memberAggregateQueries.findAgeGoeTeamAverageByWindow()).extracting("username")
+                .containsExactly("member2", "member4");
+    }
+}
@@ -0,0 +1,90 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 청크마다 커밋하므로 @Transactional 없이 돌리고 끝나면 지운다.
+ */
+@SpringBootTest
+class MemberChunkReaderTest {
+
+    @Autowired
+    private MemberChunkReader memberChunkReader;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 25; i++) {
+            memberRepository.save(new Member("member" + i, i));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void readInChunksAndResume() {
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<Long> checkpoints = new ArrayList<>();
+
+        long processed = memberChunkReader.forEachChunk(0, 10, chunk -> chunkSizes.add(chunk.size()), checkpoints::add);
+
+        assertThat(processed).isEqualTo(25);
+        assertThat(chunkSizes).containsExactly(10, 10, 5);
+        assertThat(checkpoints).isSorted().hasSize(3);
+
+        // 첫 청크 뒤에서 다시 시작
+        long resumed = memberChunkReader.forEachChunk(checkpoints.get(0), 10, chunk -> {
+        }, id -> {
+        });
+        assertThat(resumed).isEqualTo(15);
+    }
+
+    @Test
+    void changesAreCommittedPerChunk() {
+        memberChunkReader.forEachChunk(0, 10, chunk -> chunk.forEach(member -> member.setAge(member.getAge() + 100)),
+                id -> {
+                });
+
+        assertThat(memberRepository.findAll()).extracting("age").allMatch(age -> (int) age >= 100);
+    }
+
+    @Test
+    void parallelWorkers() {
+        List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+        Map<Integer, Long> checkpoints = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<MemberIdRange> ranges = memberChunkReader.partitions(3);
+            long processed = memberChunkReader.forEachChunkParallel(ranges, 4,
+                    chunk -> chunk.forEach(member -> ids.add(member.getId())),
+                    (range, lastId) -> checkpoints.put(range.getPartition(), lastId), executor);
+
+            assertThat(ranges).hasSize(3);
+            assertThat(processed).isEqualTo(25);
+            assertThat(ids).doesNotHaveDuplicates().hasSize(25);
+            assertThat(checkpoints).hasSize(3);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -4,15 +4,20 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.BatchSaveResult;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -99,4 +104,51 @@ class MemberJpaRepositoryTest {
         List<MemberTeamDto> memberTeamDtos = memberJpaRepository.search(memberSearchCondition);
         assertThat(memberTeamDtos).extracting("username").containsExactly("member1", "member2", "member3", "member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveAllTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        List<Member> members = IntStream.range(0, 25)
+                .mapToObj(i -> new Member("member" + i, i, teamA))
+                .collect(Collectors.toList());
+
+        BatchSaveResult result = memberJpaRepository.saveAll(members, 10);
+
+        assertThat(result.getRows()).isEqualTo(25);
+        assertThat(result.getWindows()).isEqualTo(3);
+        assertThat(em.contains(teamA)).isFalse();
+        assertThat(em.contains(members.get(0))).isFalse();
+        assertThat(em.contains(members.get(24))).isTrue();
+
+        MemberSearchCondition memberSearchCondition = new MemberSearchCondition();
+        memberSearchCondition.setTeamName("teamA");
+        assertThat(memberJpaRepository.search(memberSearchCondition)).hasSize(25);
+    }
+
+    @Test
+    void saveAllStreamTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.flush();
+        em.clear();
+
+        Team reference = em.getReference(Team.class, teamA.getId());
+        BatchSaveResult result = memberJpaRepository.saveAll(IntStream.range(0, 5)
+                .mapToObj(i -> {
+                    Member member = new Member("member" + i, i);
+                    member.setTeam(reference);
+                    return member;
+                }));
+
+        assertThat(result.getRows()).isEqualTo(5);
+        assertThat(memberJpaRepository.findByUsername("member3")).extracting("team.name").containsExactly("teamA");
+    }
+
+    @Test
+    void saveAllRejectsEmptyWindow() {
+        assertThatThrownBy(() -> memberJpaRepository.saveAll(Collections.singletonList(new Member("member1", 10)), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
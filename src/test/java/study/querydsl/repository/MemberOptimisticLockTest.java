@@ -0,0 +1,72 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * updateWithRetry 는 트랜잭션을 직접 커밋하므로 @Transactional 없이 돌리고 끝나면 지운다.
+ */
+@SpringBootTest(properties = {"member.retry.max-attempts=3", "member.retry.backoff-ms=1"})
+class MemberOptimisticLockTest {
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void retryAfterConflict() {
+        Member member = memberRepository.save(new Member("member1", 10));
+
+        int[] calls = {0};
+        int attempts = memberJpaRepository.updateWithRetry(member.getId(), m -> {
+            if (calls[0]++ == 0) {
+                // 첫 시도 중에 다른 트랜잭션이 먼저 커밋
+                newTransaction().executeWithoutResult(status -> memberJpaRepository.addAge(member.getId(), 100));
+            }
+            m.setAge(m.getAge() + 1);
+        });
+
+        assertThat(attempts).isEqualTo(2);
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(111);
+        assertThat(findMember.getVersion()).isEqualTo(2L);
+    }
+
+    @Test
+    void giveUpAfterMaxAttempts() {
+        Member member = memberRepository.save(new Member("member1", 10));
+
+        assertThatThrownBy(() -> memberJpaRepository.updateWithRetry(member.getId(), m -> {
+            newTransaction().executeWithoutResult(status -> memberJpaRepository.addAge(member.getId(), 1));
+            m.setAge(0);
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(13);
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
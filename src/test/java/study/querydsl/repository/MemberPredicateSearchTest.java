@@ -0,0 +1,72 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "member.predicate.max-page-size=2")
+@Transactional
+class MemberPredicateSearchTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberPredicateSearch memberPredicateSearch;
+
+    @Test
+    void searchByIndexedPath() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.persist(new Member("member4", 40, teamB));
+
+        QMember member = QMember.member;
+        Page<MemberTeamDto> page = memberPredicateSearch.search(
+                member.team.name.eq("teamA").and(member.age.between(10, 30)),
+                PageRequest.of(0, 1000, Sort.by("age")));
+
+        // max-page-size 로 잘린다
+        assertThat(page.getSize()).isEqualTo(2);
+        assertThat(page.getContent()).extracting("username").containsExactly("member1", "member2");
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectUnindexedPredicate() {
+        QMember member = QMember.member;
+
+        assertThatThrownBy(() -> memberPredicateSearch.search(member.age.goe(10), PageRequest.of(0, 10)))
+                .isInstanceOf(MemberPredicateSearch.UnsupportedPredicateException.class);
+        assertThatThrownBy(() -> memberPredicateSearch.search(
+                member.username.eq("member1").or(member.age.goe(10)), PageRequest.of(0, 10)))
+                .isInstanceOf(MemberPredicateSearch.UnsupportedPredicateException.class);
+        assertThatThrownBy(() -> memberPredicateSearch.search(null, PageRequest.of(0, 10)))
+                .isInstanceOf(MemberPredicateSearch.UnsupportedPredicateException.class);
+    }
+
+    @Test
+    void shapeIgnoresConstants() {
+        QMember member = QMember.member;
+
+        assertThat(MemberPredicateSearch.shapeOf(member.username.eq("a").and(member.age.between(1, 2))))
+                .isEqualTo(MemberPredicateSearch.shapeOf(member.username.eq("b").and(member.age.between(3, 4))));
+    }
+}
@@ -5,14 +5,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
+import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -105,6 +110,113 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    void searchViewConsistencyTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+
+        Member member3 = new Member("member3", 30, teamB);
+        Member member4 = new Member("member4", 40, teamB);
+        Member member5 = new Member("member5", 50);
+
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+        em.persist(member5);
+
+        member1.changeTeam(teamB);
+        member2.setAge(25);
+        teamB.setName("teamC");
+        em.remove(member3);
+        em.flush();
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        assertThat(memberRepository.searchView(all))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberRepository.search(all));
+
+        MemberSearchCondition memberSearchCondition = new MemberSearchCondition();
+        memberSearchCondition.setAgeGoe(10);
+        memberSearchCondition.setAgeLoe(40);
+        memberSearchCondition.setTeamName("teamC");
+        assertThat(memberRepository.searchView(memberSearchCondition))
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberRepository.search(memberSearchCondition));
+        assertThat(memberRepository.searchView(memberSearchCondition))
+                .extracting("username").containsExactlyInAnyOrder("member1", "member4");
+    }
+
+    @Test
+    void bulkChangeTeamTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+
+        MemberSearchCondition memberSearchCondition = new MemberSearchCondition();
+        memberSearchCondition.setTeamName("teamA");
+
+        List<Long> counts = memberRepository.bulkChangeTeam(memberSearchCondition, teamB.getId(), 2);
+
+        assertThat(counts.stream().mapToLong(Long::longValue).sum()).isEqualTo(2);
+        assertThat(em.contains(teamA)).isFalse();
+
+        MemberSearchCondition teamBCondition = new MemberSearchCondition();
+        teamBCondition.setTeamName("teamB");
+        assertThat(memberRepository.search(teamBCondition)).hasSize(4);
+        assertThat(memberRepository.searchView(teamBCondition)).hasSize(4);
+    }
+
+    @Test
+    void bulkAddAgeTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+
+        List<Long> counts = memberRepository.bulkAddAge(5, 10, 20, 1);
+
+        assertThat(counts).hasSize(3);
+        assertThat(counts.stream().mapToLong(Long::longValue).sum()).isEqualTo(2);
+        // clear 되었으므로 다시 조회하면 DB 값
+        assertThat(memberRepository.findById(member1.getId()).get().getAge()).isEqualTo(15);
+        assertThat(memberRepository.findAll()).extracting("age").containsExactlyInAnyOrder(15, 25, 30);
+    }
+
+    @Test
+    void bulkUpdateChunksFollowExistingIds() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Member member = new Member("member" + i, 10);
+            em.persist(member);
+            members.add(member);
+        }
+        // 가운데 id 를 지워서 구간을 듬성듬성하게 만든다.
+        for (int i = 1; i < 9; i++) {
+            em.remove(members.get(i));
+        }
+
+        List<Long> counts = memberRepository.bulkAddAge(1, 10, 10, 1);
+
+        assertThat(counts).containsExactly(1L, 1L);
+    }
+
     @Test
     public void querydslPredicateExecutorTest() {
         Team teamA = new Team("teamA");
@@ -133,4 +245,46 @@ class MemberRepositoryTest {
         }
     }
 
-}
\ No newline at end of file
+
+    @Test
+    void findSliceTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        em.persist(new Member("noTeam", 10));
+
+        QMember member = QMember.member;
+        QTeam team = QTeam.team;
+        QMemberTeamDto projection = new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+
+        Slice<MemberTeamDto> first = memberRepository.findSlice(member.age.goe(10), projection,
+                q -> q.leftJoin(member.team, team), PageRequest.of(0, 3, Sort.by("age", "username")));
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "noTeam", "member2");
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<MemberTeamDto> last = memberRepository.findSlice(member.age.goe(10), projection,
+                q -> q.leftJoin(member.team, team), PageRequest.of(1, 3, Sort.by("age", "username")));
+        assertThat(last.getContent()).extracting("username").containsExactly("member3", "member4");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void findPageTest() {
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, i * 10));
+        }
+
+        QMember member = QMember.member;
+        Page<String> page = memberRepository.findPage(member.age.goe(10), member.username, q -> {
+        }, PageRequest.of(0, 2, Sort.by("age")));
+        assertThat(page.getContent()).containsExactly("member1", "member2");
+        assertThat(page.getTotalElements()).isEqualTo(4);
+
+        memberRepository.save(new Member("member5", 50));
+        Page<String> next = memberRepository.findPage(member.age.goe(10), member.username, q -> {
+        }, PageRequest.of(0, 2, Sort.by("age")));
+        assertThat(next.getTotalElements()).isEqualTo(5);
+    }
+}
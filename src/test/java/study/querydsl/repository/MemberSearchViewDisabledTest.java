@@ -0,0 +1,43 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// member_team_view 를 갱신하지 않으므로 searchView 는 조인 쿼리로 대신한다.
+@SpringBootTest(properties = "member.view.enabled=false")
+@Transactional
+class MemberSearchViewDisabledTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Test
+    void searchViewFallsBackToJoin() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        assertThat(memberRepository.searchView(condition))
+                .extracting("username", "teamName")
+                .containsExactly(tuple("member1", "teamA"));
+        assertThat(memberRepository.searchView(new MemberSearchCondition())).hasSize(2);
+    }
+}
@@ -0,0 +1,113 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamStatDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@Transactional
+class TeamStatRepositoryTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TeamStatRepository teamStatRepository;
+
+    private Team teamA;
+    private Team teamB;
+    private Member member1;
+    private Member member4;
+
+    @BeforeEach
+    void before() {
+        teamA = new Team("teamA");
+        teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30, teamB);
+        member4 = new Member("member4", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.persist(member4);
+        em.flush();
+    }
+
+    @Test
+    void insertTest() {
+        List<TeamStatDto> stats = teamStatRepository.findTeamStats();
+
+        assertThat(stats).extracting("teamName", "memberCount", "ageMin", "ageMax", "ageAvg")
+                .containsExactly(
+                        tuple("teamA", 2L, 10, 20, 15.0),
+                        tuple("teamB", 2L, 30, 40, 35.0));
+    }
+
+    @Test
+    void changeTeamAndAgeTest() {
+        member1.changeTeam(teamB);
+        member4.setAge(50);
+        em.flush();
+
+        List<TeamStatDto> stats = teamStatRepository.findTeamStats();
+
+        assertThat(stats).extracting("teamName", "memberCount", "ageSum", "ageMin", "ageMax")
+                .containsExactly(
+                        tuple("teamA", 1L, 20L, 20, 20),
+                        tuple("teamB", 3L, 90L, 10, 50));
+    }
+
+    @Test
+    void deleteTest() {
+        em.remove(member4);
+        em.flush();
+
+        List<TeamStatDto> stats = teamStatRepository.findTeamStats();
+
+        assertThat(stats).extracting("teamName", "memberCount", "ageMin", "ageMax")
+                .containsExactly(
+                        tuple("teamA", 2L, 10, 20),
+                        tuple("teamB", 1L, 30, 30));
+    }
+
+    @Test
+    void rebuildTest() {
+        em.createQuery("update Member m set m.age = m.age + 1").executeUpdate();
+        teamStatRepository.rebuild();
+
+        List<TeamStatDto> stats = teamStatRepository.findTeamStats();
+
+        assertThat(stats).extracting("teamName", "ageSum", "ageMin", "ageMax")
+                .containsExactly(
+                        tuple("teamA", 32L, 11, 21),
+                        tuple("teamB", 72L, 31, 41));
+    }
+
+    @Test
+    void rebuildTeamsTest() {
+        em.createQuery("update Member m set m.age = m.age + 1").executeUpdate();
+        teamStatRepository.rebuild(Collections.singleton(teamA.getId()));
+
+        // teamB 는 다시 만들지 않았으므로 이전 값
+        assertThat(teamStatRepository.findTeamStats()).extracting("teamName", "ageSum", "ageMin", "ageMax")
+                .containsExactly(
+                        tuple("teamA", 32L, 11, 21),
+                        tuple("teamB", 70L, 30, 40));
+    }
+}
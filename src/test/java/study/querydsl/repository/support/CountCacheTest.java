@@ -0,0 +1,81 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 커밋 이벤트로 캐시가 비워지는지 보므로 @Transactional 없이 넣고 끝나면 지운다.
+ */
+@SpringBootTest(properties = {"member.count-cache.enabled=true", "member.count-cache.ttl-ms=600000"})
+class CountCacheTest {
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            memberRepository.save(new Member("member" + i, i * 10));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void servesCachedCountUntilSave() {
+        assertThat(total()).isEqualTo(2);
+
+        // 이벤트를 거치지 않는 변경은 캐시된 count 가 그대로 보인다.
+        jdbcTemplate.update("update member set age = 50 where age = 0");
+        assertThat(total()).isEqualTo(2);
+
+        memberRepository.save(new Member("member3", 5));
+        assertThat(total()).isEqualTo(3);
+    }
+
+    @Test
+    void clearedByCommittedInsert() {
+        assertThat(total()).isEqualTo(2);
+
+        // 리포지토리 save 가 아닌 em.persist 경로
+        memberJpaRepository.saveAll(Arrays.asList(new Member("member3", 30), new Member("member4", 40)));
+
+        assertThat(total()).isEqualTo(4);
+    }
+
+    @Test
+    void clearedByBulkUpdate() {
+        assertThat(total()).isEqualTo(2);
+
+        memberRepository.bulkAddAge(10, 0, 0, 100);
+
+        assertThat(total()).isEqualTo(3);
+    }
+
+    private long total() {
+        return memberRepository.findPage(member.age.goe(10), member.username, q -> {
+        }, PageRequest.of(0, 1)).getTotalElements();
+    }
+}
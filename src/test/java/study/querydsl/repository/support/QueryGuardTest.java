@@ -0,0 +1,88 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 행 수 추정치는 커밋된 데이터 기준이라 @Transactional 없이 넣고 끝나면 지운다.
+ */
+@SpringBootTest(properties = {"member.query-guard.max-rows=2", "member.query-guard.max-cost=3"})
+@AutoConfigureMockMvc
+class QueryGuardTest {
+
+    @Autowired
+    private JPAQueryFactory jpaQueryFactory;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, i * 10));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void rejectTooManyRows() {
+        // 잘라서 돌려주지 않는다.
+        assertThatThrownBy(() -> jpaQueryFactory.selectFrom(member).where(member.id.goe(0L)).fetch())
+                .isInstanceOf(QueryBudgetExceededException.class);
+        assertThatThrownBy(() -> jpaQueryFactory.selectFrom(member).where(member.id.goe(0L)).fetchResults())
+                .isInstanceOf(QueryBudgetExceededException.class);
+
+        assertThat(jpaQueryFactory.selectFrom(member).where(member.id.goe(0L)).limit(2).fetch()).hasSize(2);
+        assertThat(jpaQueryFactory.selectFrom(member).where(member.id.goe(0L)).fetchCount()).isEqualTo(5);
+    }
+
+    @Test
+    void indexLookupPasses() {
+        assertThat(jpaQueryFactory.selectFrom(member).where(member.username.eq("member1")).fetch())
+                .extracting("age").containsExactly(10);
+    }
+
+    @Test
+    void rejectFullScan() {
+        assertThatThrownBy(() -> jpaQueryFactory.selectFrom(member).where(member.age.goe(0)).fetch())
+                .isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    void checkCostOutsideTransaction() {
+        assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+
+        assertThat(jpaQueryFactory.select(member.age).from(member).where(member.username.eq("member2")).fetch())
+                .containsExactly(20);
+        assertThatThrownBy(() -> jpaQueryFactory.select(member.count()).from(member).where(member.age.goe(0)).fetchOne())
+                .isInstanceOf(QueryBudgetExceededException.class);
+    }
+
+    @Test
+    void rejectedQueryIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/members").param("ageGoe", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.sql;
+
+import com.querydsl.sql.SQLQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class SqlMemberRepositoryTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private SQLQueryFactory sqlQueryFactory;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    private SqlMemberRepository sqlMemberRepository;
+
+    @BeforeEach
+    void before() {
+        sqlMemberRepository = new SqlMemberRepository(sqlQueryFactory);
+
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+        // querydsl-sql 은 JPA 자동 flush 대상이 아니다.
+        em.flush();
+    }
+
+    @Test
+    void sameResultAsJpa() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+        condition.setTeamName("teamB");
+
+        assertThat(sqlMemberRepository.search(condition))
+                .usingFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+
+        MemberSearchCondition all = new MemberSearchCondition();
+        assertThat(sqlMemberRepository.search(all)).extracting("teamName")
+                .containsExactlyInAnyOrder("teamA", "teamA", "teamB", "teamB", null);
+    }
+
+    @Test
+    void searchPage() {
+        Page<MemberTeamDto> page = sqlMemberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(0, 3));
+
+        assertThat(page.getContent()).hasSize(3);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+    }
+}
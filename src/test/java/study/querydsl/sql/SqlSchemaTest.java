@@ -0,0 +1,121 @@
+package study.querydsl.sql;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.sql.ColumnMetadata;
+import com.querydsl.sql.ForeignKey;
+import com.querydsl.sql.RelationalPath;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 손으로 쓴 SMember / STeam 이 JPA 매핑과 어긋나지 않는지.
+ */
+@SpringBootTest
+class SqlSchemaTest {
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void member() throws SQLException {
+        assertSameAsJpa(Member.class, SMember.member);
+    }
+
+    @Test
+    void team() throws SQLException {
+        assertSameAsJpa(Team.class, STeam.team);
+    }
+
+    private void assertSameAsJpa(Class<?> entity, RelationalPath<?> table) throws SQLException {
+        AbstractEntityPersister persister = (AbstractEntityPersister) emf.unwrap(SessionFactoryImplementor.class)
+                .getMetamodel().entityPersister(entity);
+        Set<String> jpaColumns = new HashSet<>();
+        Collections.addAll(jpaColumns, persister.getIdentifierColumnNames());
+        for (String property : persister.getPropertyNames()) {
+            Collections.addAll(jpaColumns, persister.getPropertyColumnNames(property));
+        }
+        assertThat(table.getTableName()).isEqualToIgnoringCase(persister.getTableName());
+        assertThat(columnNames(table, table.getColumns())).containsExactlyInAnyOrderElementsOf(upperCase(jpaColumns));
+
+        // 타입, null 여부, 키는 Hibernate 가 만든 스키마와 비교
+        Map<String, String> expected = new HashMap<>();
+        for (Path<?> column : table.getColumns()) {
+            ColumnMetadata metadata = table.getMetadata(column);
+            expected.put(metadata.getName(), metadata.getJdbcType() + " " + metadata.isNullable());
+        }
+        Map<String, String> actual = new HashMap<>();
+        List<String> primaryKey = new ArrayList<>();
+        Map<String, String> foreignKeys = new HashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rs = metaData.getColumns(null, table.getSchemaName(), table.getTableName(), null)) {
+                while (rs.next()) {
+                    actual.put(rs.getString("COLUMN_NAME"),
+                            rs.getInt("DATA_TYPE") + " " + (rs.getInt("NULLABLE") == DatabaseMetaData.columnNullable));
+                }
+            }
+            try (ResultSet rs = metaData.getPrimaryKeys(null, table.getSchemaName(), table.getTableName())) {
+                while (rs.next()) {
+                    primaryKey.add(rs.getString("COLUMN_NAME"));
+                }
+            }
+            try (ResultSet rs = metaData.getImportedKeys(null, table.getSchemaName(), table.getTableName())) {
+                while (rs.next()) {
+                    foreignKeys.put(rs.getString("FKCOLUMN_NAME"), rs.getString("PKCOLUMN_NAME"));
+                }
+            }
+        }
+        assertThat(actual).isEqualTo(expected);
+        assertThat(primaryKey).containsExactlyElementsOf(columnNames(table, table.getPrimaryKey().getLocalColumns()));
+
+        Map<String, String> declaredForeignKeys = new HashMap<>();
+        for (ForeignKey<?> foreignKey : table.getForeignKeys()) {
+            List<String> local = columnNames(table, foreignKey.getLocalColumns());
+            for (int i = 0; i < local.size(); i++) {
+                declaredForeignKeys.put(local.get(i), foreignKey.getForeignColumns().get(i));
+            }
+        }
+        assertThat(foreignKeys).isEqualTo(declaredForeignKeys);
+    }
+
+    private static List<String> columnNames(RelationalPath<?> table, List<? extends Path<?>> columns) {
+        List<String> names = new ArrayList<>();
+        for (Path<?> column : columns) {
+            names.add(table.getMetadata(column).getName());
+        }
+        return names;
+    }
+
+    private static List<String> upperCase(Set<String> names) {
+        List<String> result = new ArrayList<>();
+        for (String name : names) {
+            result.add(name.toUpperCase(Locale.ROOT));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package study.querydsl.stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 페이지마다 별도 트랜잭션(boundedElastic 스레드)으로 읽으므로 @Transactional 없이 돌리고 끝나면 지운다.
+ */
+@SpringBootTest(properties = "member.flux.page-size=2")
+class MemberFluxSearchTest {
+
+    @Autowired
+    private MemberFluxSearch memberFluxSearch;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("member" + i, i * 10));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAll();
+    }
+
+    @Test
+    void emitOnDemand() {
+        StepVerifier.create(memberFluxSearch.search(new MemberSearchCondition()), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    void keysetOrderWithCondition() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+
+        List<MemberTeamDto> result = memberFluxSearch.search(condition).collectList().block();
+
+        assertThat(result).extracting("username").containsExactly("member1", "member2", "member3", "member4");
+        List<Long> ids = result.stream().map(MemberTeamDto::getMemberId).collect(Collectors.toList());
+        assertThat(ids).isSorted();
+    }
+}
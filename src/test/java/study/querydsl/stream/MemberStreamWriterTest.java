@@ -0,0 +1,60 @@
+package study.querydsl.stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 버퍼를 작게 해서 여러 번 나눠 내보내는 경우도 확인한다.
+@SpringBootTest(properties = "member.stream.buffer-size=64")
+@Transactional
+class MemberStreamWriterTest {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MemberStreamWriter memberStreamWriter;
+
+    @Test
+    void writeJsonArray() throws Exception {
+        Team teamA = new Team("팀\"A\"");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+        em.flush();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = memberStreamWriter.write(new MemberSearchCondition(), out);
+
+        JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        assertThat(rows).isEqualTo(3);
+        assertThat(json).hasSize(3);
+        assertThat(json.get(0).get("username").asText()).isEqualTo("member1");
+        assertThat(json.get(0).get("teamName").asText()).isEqualTo("팀\"A\"");
+        assertThat(json.get(1).get("age").asInt()).isEqualTo(20);
+        assertThat(json.get(2).get("teamId").isNull()).isTrue();
+    }
+
+    @Test
+    void emptyResult() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("nobody");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        memberStreamWriter.write(condition, out);
+
+        assertThat(out.toString("UTF-8")).isEqualTo("[]");
+    }
+}